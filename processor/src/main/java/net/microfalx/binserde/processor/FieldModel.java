@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package net.microfalx.binserde.processor;
+
+import javax.lang.model.type.TypeKind;
+
+/**
+ * Holds information about a field of a class processed by {@link SerializerProcessor}.
+ * <p>
+ * Fields are read and written directly when they are visible from the generated class, otherwise through the
+ * getter and setter of the field.
+ */
+final class FieldModel {
+
+    private final String name;
+    private final String type;
+    private final TypeKind kind;
+    private final short tag;
+    private final boolean intern;
+    private final String getter;
+    private final String setter;
+
+    FieldModel(String name, String type, TypeKind kind, short tag, boolean intern, String getter, String setter) {
+        this.name = name;
+        this.type = type;
+        this.kind = kind;
+        this.tag = tag;
+        this.intern = intern;
+        this.getter = getter;
+        this.setter = setter;
+    }
+
+    /**
+     * Returns the field name.
+     *
+     * @return a non-empty String
+     */
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the erased type of the field, as it appears in source code.
+     *
+     * @return a non-empty String
+     */
+    String getType() {
+        return type;
+    }
+
+    /**
+     * Returns whether the field holds a primitive.
+     *
+     * @return {@code true} if a primitive, {@code false} otherwise
+     */
+    boolean isPrimitive() {
+        return kind.isPrimitive();
+    }
+
+    /**
+     * Returns the tag associated with the field.
+     *
+     * @return the tag, {@code -1} if the field has no tag
+     */
+    short getTag() {
+        return tag;
+    }
+
+    /**
+     * Returns whether the values of the field are interned when deserialized.
+     *
+     * @return {@code true} if the field is annotated with {@code @Intern}, {@code false} otherwise
+     */
+    boolean isIntern() {
+        return intern;
+    }
+
+    /**
+     * Returns the name used by encoders and decoders for a primitive ({@code Integer} for {@code int}, etc).
+     *
+     * @return a non-empty String
+     */
+    String getCodecName() {
+        switch (kind) {
+            case BOOLEAN:
+                return "Boolean";
+            case BYTE:
+                return "Byte";
+            case SHORT:
+                return "Short";
+            case CHAR:
+                return "Character";
+            case INT:
+                return "Integer";
+            case LONG:
+                return "Long";
+            case FLOAT:
+                return "Float";
+            case DOUBLE:
+                return "Double";
+            default:
+                throw new IllegalStateException("Field '" + name + "' is not a primitive");
+        }
+    }
+
+    /**
+     * Returns an expression which reads the field.
+     *
+     * @param instance the variable holding the object
+     * @return a non-empty String
+     */
+    String read(String instance) {
+        return getter != null ? instance + "." + getter + "()" : instance + "." + name;
+    }
+
+    /**
+     * Returns a statement which writes the field.
+     *
+     * @param instance the variable holding the object
+     * @param value    the expression holding the value
+     * @return a non-empty String
+     */
+    String write(String instance, String value) {
+        return setter != null ? instance + "." + setter + "(" + value + ");" : instance + "." + name + " = " + value + ";";
+    }
+}
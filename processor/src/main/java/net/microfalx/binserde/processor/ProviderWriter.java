@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package net.microfalx.binserde.processor;
+
+import java.util.List;
+
+/**
+ * Writes the source code of a {@code SerializerProvider}.
+ * <p>
+ * All types are referenced by their fully qualified name, so the generated code does not depend on the
+ * other classes of the package.
+ */
+final class ProviderWriter {
+
+    private static final String BINSERDE = "net.microfalx.binserde.";
+
+    private final String packageName;
+    private final String providerName;
+    private final String type;
+    private final List<FieldModel> fields;
+    private final StringBuilder builder = new StringBuilder();
+
+    ProviderWriter(String packageName, String providerName, String type, List<FieldModel> fields) {
+        this.packageName = packageName;
+        this.providerName = providerName;
+        this.type = type;
+        this.fields = fields;
+    }
+
+    /**
+     * Returns the source code of the provider.
+     *
+     * @return a non-empty String
+     */
+    String write() {
+        if (!packageName.isEmpty()) line(0, "package " + packageName + ";").line();
+        line(0, "/**");
+        line(0, " * Serializer provider for {@link " + type + "}, generated by the binserde annotation processor.");
+        line(0, " */");
+        line(0, "@SuppressWarnings({\"unchecked\", \"rawtypes\"})");
+        line(0, "public final class " + providerName + " implements " + BINSERDE + "SerializerProvider<" + type + "> {").line();
+        writeGetType();
+        writeCreateClassInfo();
+        writeFactories();
+        writeSerializer();
+        writeDeserializer();
+        line(0, "}");
+        return builder.toString();
+    }
+
+    private void writeGetType() {
+        line(1, "@Override");
+        line(1, "public Class<" + type + "> getType() {");
+        line(2, "return " + type + ".class;");
+        line(1, "}").line();
+    }
+
+    private void writeCreateClassInfo() {
+        line(1, "@Override");
+        line(1, "public " + BINSERDE + "metadata.ClassInfo createClassInfo() {");
+        if (fields.isEmpty()) {
+            line(2, "return " + BINSERDE + "metadata.ClassInfo.create(" + type + ".class, java.util.Collections.emptyList());");
+            line(1, "}").line();
+            return;
+        }
+        line(2, "return " + BINSERDE + "metadata.ClassInfo.create(" + type + ".class, java.util.Arrays.asList(");
+        for (int index = 0; index < fields.size(); index++) {
+            writeFieldInfo(fields.get(index), index == fields.size() - 1);
+        }
+        line(1, "}").line();
+    }
+
+    private void writeFieldInfo(FieldModel field, boolean last) {
+        line(4, BINSERDE + "metadata.FieldInfo.create(\"" + field.getName() + "\", " + field.getType() + ".class, (short) "
+                + field.getTag() + ", " + field.isIntern() + ", new " + BINSERDE + "metadata.FieldAccessor() {").line();
+        line(5, "@Override");
+        line(5, "public Object get(Object instance) {");
+        line(6, "return " + field.read("((" + type + ") instance)") + ";");
+        line(5, "}").line();
+        line(5, "@Override");
+        line(5, "public void set(Object instance, Object value) {");
+        String valueType = field.isPrimitive() ? "java.lang." + field.getCodecName() : field.getType();
+        line(6, field.write("((" + type + ") instance)", "(" + valueType + ") value"));
+        line(5, "}");
+        if (field.isPrimitive()) {
+            String codecName = field.getCodecName();
+            line().line(5, "@Override");
+            line(5, "public " + field.getType() + " get" + codecName + "(Object instance) {");
+            line(6, "return " + field.read("((" + type + ") instance)") + ";");
+            line(5, "}").line();
+            line(5, "@Override");
+            line(5, "public void set" + codecName + "(Object instance, " + field.getType() + " value) {");
+            line(6, field.write("((" + type + ") instance)", "value"));
+            line(5, "}");
+        }
+        line(4, last ? "})));" : "}),");
+    }
+
+    private void writeFactories() {
+        line(1, "@Override");
+        line(1, "public " + BINSERDE + "serializer.Serializer<" + type + "> createSerializer() {");
+        line(2, "return new Writer();");
+        line(1, "}").line();
+        line(1, "@Override");
+        line(1, "public " + BINSERDE + "deserializer.Deserializer<" + type + "> createDeserializer() {");
+        line(2, "return new Reader();");
+        line(1, "}").line();
+    }
+
+    private void writeSerializer() {
+        line(1, "private static final class Writer extends " + BINSERDE + "serializer.GeneratedSerializer<" + type + "> {").line();
+        line(2, "private Writer() {");
+        line(3, "super(" + type + ".class, " + BINSERDE + "metadata.ClassInfo.create(" + type + ".class));");
+        line(2, "}").line();
+        line(2, "@Override");
+        line(2, "protected void writeFields(" + BINSERDE + "serializer.SerializerContext context, Object data) throws java.io.IOException {");
+        line(3, BINSERDE + "io.Encoder encoder = context.getEncoder();");
+        line(3, type + " value = (" + type + ") data;");
+        for (int index = 0; index < fields.size(); index++) {
+            FieldModel field = fields.get(index);
+            if (field.isPrimitive()) {
+                line(3, "encoder.write" + field.getCodecName() + "(" + field.read("value") + ");");
+            } else {
+                line(3, "writeField(context, " + index + ", " + field.read("value") + ");");
+            }
+        }
+        line(2, "}");
+        line(1, "}").line();
+    }
+
+    private void writeDeserializer() {
+        line(1, "private static final class Reader extends " + BINSERDE + "deserializer.GeneratedDeserializer<" + type + "> {").line();
+        line(2, "private Reader() {");
+        line(3, "super(" + type + ".class, " + BINSERDE + "metadata.ClassInfo.create(" + type + ".class));");
+        line(2, "}").line();
+        line(2, "@Override");
+        line(2, "protected void readFields(" + BINSERDE + "deserializer.DeserializerContext context, Object instance) throws java.io.IOException {");
+        line(3, BINSERDE + "io.Decoder decoder = context.getDecoder();");
+        line(3, type + " value = (" + type + ") instance;");
+        for (int index = 0; index < fields.size(); index++) {
+            FieldModel field = fields.get(index);
+            if (field.isPrimitive()) {
+                line(3, field.write("value", "decoder.read" + field.getCodecName() + "()"));
+            } else {
+                line(3, "readField(context, value, " + index + ");");
+            }
+        }
+        line(2, "}");
+        line(1, "}");
+    }
+
+    private ProviderWriter line(int indent, String text) {
+        for (int i = 0; i < indent; i++) {
+            builder.append("    ");
+        }
+        builder.append(text).append('\n');
+        return this;
+    }
+
+    private ProviderWriter line() {
+        builder.append('\n');
+        return this;
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package net.microfalx.binserde.processor;
+
+import net.microfalx.binserde.SerializerProvider;
+import net.microfalx.binserde.annotation.Intern;
+import net.microfalx.binserde.annotation.Tag;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * An annotation processor which generates a {@link SerializerProvider} for every class annotated with {@link Tag}.
+ * <p>
+ * The provider holds the class information as a static table and a serializer / deserializer which access the
+ * fields directly (or through their getters and setters), so no reflection is needed at runtime. Providers are
+ * registered in {@code META-INF/services} and discovered by the {@link net.microfalx.binserde.SerializerFactory}.
+ * <p>
+ * A class is skipped (with a warning) when a provider cannot be generated, for example when a private field has
+ * no getter or setter; such classes are still serialized with reflection.
+ */
+public class SerializerProcessor extends AbstractProcessor {
+
+    static final String PROVIDER_SUFFIX = "SerializerProvider";
+
+    private final Set<String> providers = new TreeSet<>();
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(Tag.class.getName());
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement type : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(Tag.class))) {
+            if (type.getKind() != ElementKind.CLASS) continue;
+            try {
+                generate(type);
+            } catch (IOException e) {
+                error(type, "Failed to generate serializer provider: " + e.getMessage());
+            }
+        }
+        if (roundEnv.processingOver()) writeServices();
+        return false;
+    }
+
+    private void generate(TypeElement type) throws IOException {
+        if (!isSupported(type)) return;
+        // fields are listed in the same order as ClassInfo discovers them with reflection, so the generated class
+        // information has the same layout: declared fields first, followed by the fields of the super classes
+        List<FieldModel> fields = new ArrayList<>();
+        TypeElement current = type;
+        while (current != null && !current.getQualifiedName().contentEquals(Object.class.getName())) {
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                if (field.getModifiers().contains(Modifier.STATIC)) continue;
+                FieldModel fieldModel = createField(type, field);
+                if (fieldModel == null) return;
+                fields.add(fieldModel);
+            }
+            current = getSuperclass(current);
+        }
+        String packageName = getElements().getPackageOf(type).getQualifiedName().toString();
+        String providerName = getProviderName(type);
+        String source = new ProviderWriter(packageName, providerName, type.getQualifiedName().toString(), fields).write();
+        String qualifiedName = packageName.isEmpty() ? providerName : packageName + "." + providerName;
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, type);
+        try (Writer writer = file.openWriter()) {
+            writer.write(source);
+        }
+        providers.add(qualifiedName);
+    }
+
+    private boolean isSupported(TypeElement type) {
+        if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+            return warning(type, "abstract classes are not supported");
+        } else if (!type.getTypeParameters().isEmpty()) {
+            return warning(type, "generic classes are not supported");
+        }
+        Element element = type;
+        while (element instanceof TypeElement) {
+            if (element.getModifiers().contains(Modifier.PRIVATE)) {
+                return warning(type, "private classes are not supported");
+            } else if (element.getEnclosingElement() instanceof TypeElement && !element.getModifiers().contains(Modifier.STATIC)) {
+                return warning(type, "inner classes are not supported");
+            }
+            element = element.getEnclosingElement();
+        }
+        return true;
+    }
+
+    private FieldModel createField(TypeElement type, VariableElement field) {
+        String name = field.getSimpleName().toString();
+        TypeMirror fieldType = getTypes().erasure(field.asType());
+        Tag tag = field.getAnnotation(Tag.class);
+        boolean intern = field.getAnnotation(Intern.class) != null;
+        boolean visible = isVisible(type, field);
+        String getter = null;
+        String setter = null;
+        if (!visible) {
+            getter = findGetter(type, field);
+            setter = findSetter(type, field);
+            if (getter == null || setter == null) {
+                warning(type, "field '" + name + "' is private and it has no getter or setter");
+                return null;
+            }
+        } else if (field.getModifiers().contains(Modifier.FINAL)) {
+            warning(type, "field '" + name + "' is final");
+            return null;
+        }
+        return new FieldModel(name, fieldType.toString(), fieldType.getKind(), tag != null ? tag.value() : -1, intern, getter, setter);
+    }
+
+    private String findGetter(TypeElement type, VariableElement field) {
+        String name = capitalize(field.getSimpleName().toString());
+        TypeMirror fieldType = getTypes().erasure(field.asType());
+        for (ExecutableElement method : ElementFilter.methodsIn(getElements().getAllMembers(type))) {
+            String methodName = method.getSimpleName().toString();
+            boolean getter = methodName.equals("get" + name) || (fieldType.getKind() == TypeKind.BOOLEAN && methodName.equals("is" + name));
+            if (getter && method.getParameters().isEmpty() && isVisible(type, method)
+                    && getTypes().isSameType(getTypes().erasure(method.getReturnType()), fieldType)) {
+                return methodName;
+            }
+        }
+        return null;
+    }
+
+    private String findSetter(TypeElement type, VariableElement field) {
+        String name = "set" + capitalize(field.getSimpleName().toString());
+        TypeMirror fieldType = getTypes().erasure(field.asType());
+        for (ExecutableElement method : ElementFilter.methodsIn(getElements().getAllMembers(type))) {
+            if (method.getSimpleName().contentEquals(name) && method.getParameters().size() == 1 && isVisible(type, method)
+                    && getTypes().isSameType(getTypes().erasure(method.getParameters().get(0).asType()), fieldType)) {
+                return name;
+            }
+        }
+        return null;
+    }
+
+    private boolean isVisible(TypeElement type, Element member) {
+        Set<Modifier> modifiers = member.getModifiers();
+        if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.PRIVATE)) return false;
+        if (modifiers.contains(Modifier.PUBLIC)) return true;
+        TypeElement owner = (TypeElement) member.getEnclosingElement();
+        return getElements().getPackageOf(owner).equals(getElements().getPackageOf(type));
+    }
+
+    private TypeElement getSuperclass(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) return null;
+        return (TypeElement) ((DeclaredType) superclass).asElement();
+    }
+
+    private void writeServices() {
+        if (providers.isEmpty()) return;
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+                    "META-INF/services/" + SerializerProvider.class.getName());
+            try (Writer writer = file.openWriter()) {
+                for (String provider : providers) {
+                    writer.write(provider);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to register serializer providers: " + e.getMessage());
+        }
+    }
+
+    private static String getProviderName(TypeElement type) {
+        StringBuilder builder = new StringBuilder(type.getSimpleName());
+        Element element = type.getEnclosingElement();
+        while (element instanceof TypeElement) {
+            builder.insert(0, element.getSimpleName() + "_");
+            element = element.getEnclosingElement();
+        }
+        return builder.append(PROVIDER_SUFFIX).toString();
+    }
+
+    private static String capitalize(String name) {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private boolean warning(TypeElement type, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "Cannot generate serializer provider for "
+                + type.getQualifiedName() + ", " + message, type);
+        return false;
+    }
+
+    private void error(TypeElement type, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, type);
+    }
+
+    private Elements getElements() {
+        return processingEnv.getElementUtils();
+    }
+
+    private Types getTypes() {
+        return processingEnv.getTypeUtils();
+    }
+}
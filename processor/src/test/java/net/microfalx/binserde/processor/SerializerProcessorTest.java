@@ -0,0 +1,233 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package net.microfalx.binserde.processor;
+
+import net.microfalx.binserde.SerializerFactory;
+import net.microfalx.binserde.SerializerProvider;
+import net.microfalx.binserde.deserializer.GeneratedDeserializer;
+import net.microfalx.binserde.io.InputStreamDecoder;
+import net.microfalx.binserde.io.OutputStreamEncoder;
+import net.microfalx.binserde.io.StringCache;
+import net.microfalx.binserde.metadata.ClassInfo;
+import net.microfalx.binserde.serializer.GeneratedSerializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SerializerProcessorTest {
+
+    private static final String PACKAGE = "net.microfalx.binserde.processor.sample";
+
+    @TempDir
+    static Path temporaryDirectory;
+
+    private static Path output;
+    private static URLClassLoader classLoader;
+
+    @BeforeAll
+    static void compile() throws IOException {
+        Path sources = Files.createDirectories(temporaryDirectory.resolve("sources"));
+        output = Files.createDirectories(temporaryDirectory.resolve("classes"));
+        Path packagePath = Files.createDirectories(sources.resolve(PACKAGE.replace('.', File.separatorChar)));
+        Path person = writeSource(packagePath, "Person", "@Tag(9001)\n"
+                + "public class Person extends Party {\n"
+                + "    @Intern\n"
+                + "    private String name;\n"
+                + "    private int age;\n"
+                + "    private boolean active;\n"
+                + "    public double score;\n"
+                + "    private List<String> aliases;\n"
+                + "    private Address address;\n"
+                + "    public String getName() { return name; }\n"
+                + "    public Person setName(String name) { this.name = name; return this; }\n"
+                + "    public int getAge() { return age; }\n"
+                + "    public void setAge(int age) { this.age = age; }\n"
+                + "    public boolean isActive() { return active; }\n"
+                + "    public void setActive(boolean active) { this.active = active; }\n"
+                + "    public List<String> getAliases() { return aliases; }\n"
+                + "    public void setAliases(List<String> aliases) { this.aliases = aliases; }\n"
+                + "    public Address getAddress() { return address; }\n"
+                + "    public void setAddress(Address address) { this.address = address; }\n"
+                + "    @Tag(9002)\n"
+                + "    public static class Address {\n"
+                + "        public String city;\n"
+                + "        public long zip;\n"
+                + "    }\n"
+                + "}\n");
+        Path party = writeSource(packagePath, "Party", "public class Party {\n"
+                + "    private long id;\n"
+                + "    public long getId() { return id; }\n"
+                + "    public void setId(long id) { this.id = id; }\n"
+                + "}\n");
+        Path secret = writeSource(packagePath, "Secret", "@Tag(9003)\n"
+                + "public class Secret {\n"
+                + "    private String value;\n"
+                + "}\n");
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+            List<String> options = Arrays.asList("-d", output.toString(), "-classpath", System.getProperty("java.class.path"));
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null, options, null,
+                    fileManager.getJavaFileObjects(person.toFile(), party.toFile(), secret.toFile()));
+            task.setProcessors(Collections.singletonList(new SerializerProcessor()));
+            assertTrue(task.call());
+        }
+        classLoader = new URLClassLoader(new URL[]{output.toUri().toURL()}, SerializerProcessorTest.class.getClassLoader());
+    }
+
+    @AfterAll
+    static void cleanup() throws Exception {
+        SerializerFactory factory = SerializerFactory.getInstance();
+        factory.unregister(classLoader.loadClass(PACKAGE + ".Person"));
+        factory.unregister(classLoader.loadClass(PACKAGE + ".Person$Address"));
+        classLoader.close();
+    }
+
+    @Test
+    void generated() {
+        assertTrue(Files.exists(output.resolve(PACKAGE.replace('.', File.separatorChar)).resolve("PersonSerializerProvider.class")));
+        assertTrue(Files.exists(output.resolve(PACKAGE.replace('.', File.separatorChar)).resolve("Person_AddressSerializerProvider.class")));
+        assertFalse(Files.exists(output.resolve(PACKAGE.replace('.', File.separatorChar)).resolve("SecretSerializerProvider.class")));
+        assertTrue(Files.exists(output.resolve("META-INF/services/" + SerializerProvider.class.getName())));
+    }
+
+    @Test
+    void serializeAndDeserialize() throws Exception {
+        SerializerFactory factory = SerializerFactory.getInstance();
+        Class<?> personClass = classLoader.loadClass(PACKAGE + ".Person");
+        Class<?> addressClass = classLoader.loadClass(PACKAGE + ".Person$Address");
+        factory.register(personClass);
+        factory.register(addressClass);
+        factory.registerProvider(createProvider("PersonSerializerProvider"));
+        factory.registerProvider(createProvider("Person_AddressSerializerProvider"));
+
+        Object address = addressClass.getDeclaredConstructor().newInstance();
+        addressClass.getDeclaredField("city").set(address, "Boston");
+        addressClass.getDeclaredField("zip").setLong(address, 2108);
+        Object person = personClass.getDeclaredConstructor().newInstance();
+        personClass.getMethod("setName", String.class).invoke(person, "John");
+        personClass.getMethod("setAge", int.class).invoke(person, 42);
+        personClass.getMethod("setActive", boolean.class).invoke(person, true);
+        personClass.getMethod("setAliases", List.class).invoke(person, Arrays.asList("Jack", "Johnny"));
+        personClass.getMethod("setAddress", addressClass).invoke(person, address);
+        personClass.getMethod("setId", long.class).invoke(person, 7L);
+        personClass.getDeclaredField("score").setDouble(person, 9.5);
+
+        assertTrue(factory.createSerializer(personClass) instanceof GeneratedSerializer);
+        assertTrue(factory.createDeserializer(personClass) instanceof GeneratedDeserializer);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        serialize(factory, person, outputStream);
+        Object copy = factory.createDeserializer(personClass).deserialize(new InputStreamDecoder(new ByteArrayInputStream(outputStream.toByteArray())));
+
+        assertEquals("John", personClass.getMethod("getName").invoke(copy));
+        assertEquals(42, personClass.getMethod("getAge").invoke(copy));
+        assertEquals(true, personClass.getMethod("isActive").invoke(copy));
+        assertEquals(Arrays.asList("Jack", "Johnny"), personClass.getMethod("getAliases").invoke(copy));
+        assertEquals(7L, personClass.getMethod("getId").invoke(copy));
+        assertEquals(9.5, personClass.getDeclaredField("score").getDouble(copy));
+        Object addressCopy = personClass.getMethod("getAddress").invoke(copy);
+        assertEquals("Boston", addressClass.getDeclaredField("city").get(addressCopy));
+        assertEquals(2108L, addressClass.getDeclaredField("zip").getLong(addressCopy));
+    }
+
+    @Test
+    void sameLayoutAsReflection() throws Exception {
+        SerializerFactory factory = SerializerFactory.getInstance();
+        Class<?> personClass = classLoader.loadClass(PACKAGE + ".Person");
+        Class<?> addressClass = classLoader.loadClass(PACKAGE + ".Person$Address");
+        factory.unregister(personClass);
+        factory.unregister(addressClass);
+        factory.register(personClass);
+        factory.register(addressClass);
+        ClassInfo reflectionClassInfo = ClassInfo.create(personClass);
+        ClassInfo generatedClassInfo = createProvider("PersonSerializerProvider").createClassInfo();
+        assertNotNull(reflectionClassInfo.getField("name").getField());
+        assertEquals(reflectionClassInfo.getLayout(), generatedClassInfo.getLayout());
+        assertEquals(ClassInfo.create(addressClass).getLayout(),
+                createProvider("Person_AddressSerializerProvider").createClassInfo().getLayout());
+    }
+
+    @Test
+    void internedFields() throws Exception {
+        SerializerFactory factory = SerializerFactory.getInstance();
+        Class<?> personClass = classLoader.loadClass(PACKAGE + ".Person");
+        factory.register(personClass);
+        SerializerProvider<?> provider = createProvider("PersonSerializerProvider");
+        factory.registerProvider(provider);
+        ClassInfo classInfo = provider.createClassInfo();
+        assertTrue(classInfo.getField("name").isIntern());
+        assertFalse(classInfo.getField("aliases").isIntern());
+
+        Object person = personClass.getDeclaredConstructor().newInstance();
+        personClass.getMethod("setName", String.class).invoke(person, "John");
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        serialize(factory, person, outputStream);
+        Object first = deserialize(factory, personClass, outputStream.toByteArray());
+        Object second = deserialize(factory, personClass, outputStream.toByteArray());
+        assertEquals("John", personClass.getMethod("getName").invoke(first));
+        assertSame(personClass.getMethod("getName").invoke(first), personClass.getMethod("getName").invoke(second));
+    }
+
+    private static Object deserialize(SerializerFactory factory, Class<?> type, byte[] bytes) throws IOException {
+        InputStreamDecoder decoder = new InputStreamDecoder(new ByteArrayInputStream(bytes));
+        decoder.setStringCache(StringCache.getInstance());
+        return factory.createDeserializer(type).deserialize(decoder);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void serialize(SerializerFactory factory, T object, ByteArrayOutputStream outputStream) throws IOException {
+        OutputStreamEncoder encoder = new OutputStreamEncoder(outputStream);
+        factory.createSerializer((Class<T>) object.getClass()).serialize(object, encoder);
+        encoder.close();
+    }
+
+    private static SerializerProvider<?> createProvider(String name) throws Exception {
+        Class<?> providerClass = classLoader.loadClass(PACKAGE + "." + name);
+        return (SerializerProvider<?>) providerClass.getDeclaredConstructor().newInstance();
+    }
+
+    private static Path writeSource(Path directory, String name, String body) throws IOException {
+        String source = "package " + PACKAGE + ";\n\n"
+                + "import net.microfalx.binserde.annotation.Intern;\n"
+                + "import net.microfalx.binserde.annotation.Tag;\n"
+                + "import java.util.List;\n\n" + body;
+        return Files.write(directory.resolve(name + ".java"), source.getBytes(StandardCharsets.UTF_8));
+    }
+}
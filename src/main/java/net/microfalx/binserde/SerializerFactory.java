@@ -22,18 +22,23 @@ package net.microfalx.binserde;
 import net.microfalx.binserde.annotation.Tag;
 import net.microfalx.binserde.deserializer.Deserializer;
 import net.microfalx.binserde.deserializer.ReflectionDeserializer;
+import net.microfalx.binserde.generator.SerializerGenerator;
 import net.microfalx.binserde.io.InputStreamDecoder;
 import net.microfalx.binserde.io.OutputStreamEncoder;
+import net.microfalx.binserde.io.StringCache;
+import net.microfalx.binserde.metadata.ClassInfo;
 import net.microfalx.binserde.metadata.MetadataException;
 import net.microfalx.binserde.metadata.Registry;
 import net.microfalx.binserde.serializer.ReflectionSerializer;
 import net.microfalx.binserde.serializer.Serializer;
 import net.microfalx.binserde.utils.ClassUtils;
+import net.microfalx.binserde.utils.UnsafeUtils;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.Map;
+import java.util.ServiceLoader;
 import java.util.concurrent.ConcurrentHashMap;
 
 import static net.microfalx.binserde.utils.ArgumentUtils.requireNonNull;
@@ -45,10 +50,21 @@ public class SerializerFactory {
 
     private final Map<Short, Class<?>> classesById = new ConcurrentHashMap<>();
     private final Map<Class<?>, Short> idsByClasses = new ConcurrentHashMap<>();
+    private final Map<Class<?>, SerializerProvider<?>> providers = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Serializer<?>> serializers = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Deserializer<?>> deserializers = new ConcurrentHashMap<>();
+    private volatile boolean providersLoaded;
 
     public static SerializerFactory instance = new SerializerFactory();
 
     private volatile Registry registry;
+    private volatile boolean unsafeEnabled = UnsafeUtils.isAvailable()
+            && Boolean.parseBoolean(System.getProperty("binserde.unsafe", "true"));
+    private volatile boolean codeGenerationEnabled = Boolean.parseBoolean(System.getProperty("binserde.codegen", "true"));
+    private volatile boolean allocationEnabled = UnsafeUtils.isAvailable()
+            && Boolean.parseBoolean(System.getProperty("binserde.allocate", "false"));
+    private volatile StringCache stringCache = Boolean.parseBoolean(System.getProperty("binserde.intern", "false"))
+            ? StringCache.getInstance() : null;
 
     /**
      * Returns the singleton instance.
@@ -76,10 +92,12 @@ public class SerializerFactory {
         requireNonNull(outputStream);
 
         OutputStreamEncoder encoder = new OutputStreamEncoder(outputStream);
-
-        Serializer<T> serializer = (Serializer<T>) getInstance().createSerializer(object.getClass());
-        serializer.serialize(object, encoder);
-        encoder.close();
+        Serializer<T> serializer = (Serializer<T>) getInstance().getSerializer(object.getClass());
+        try {
+            serializer.serialize(object, encoder);
+        } finally {
+            encoder.close();
+        }
     }
 
     /**
@@ -96,7 +114,7 @@ public class SerializerFactory {
         requireNonNull(inputStream);
 
         InputStreamDecoder decoder = new InputStreamDecoder(inputStream);
-        Deserializer<T> deserializer = getInstance().createDeserializer(type);
+        Deserializer<T> deserializer = getInstance().getDeserializer(type);
         try {
             return deserializer.deserialize(decoder);
         } finally {
@@ -123,6 +141,103 @@ public class SerializerFactory {
         this.registry = registry;
     }
 
+    /**
+     * Returns whether fields are accessed with {@link sun.misc.Unsafe}.
+     * <p>
+     * Unsafe is used by default, when available in the JVM. It can be disabled with the system property
+     * {@code binserde.unsafe=false} or by calling {@link #setUnsafeEnabled(boolean)}, in which case fields
+     * are accessed with method handles.
+     *
+     * @return {@code true} if Unsafe is used, {@code false} otherwise
+     */
+    public boolean isUnsafeEnabled() {
+        return unsafeEnabled;
+    }
+
+    /**
+     * Changes whether fields are accessed with {@link sun.misc.Unsafe}.
+     * <p>
+     * The setting applies to classes loaded after the change. Unsafe cannot be enabled if it is not available in the JVM.
+     *
+     * @param unsafeEnabled {@code true} to use Unsafe, {@code false} to use method handles
+     */
+    public void setUnsafeEnabled(boolean unsafeEnabled) {
+        this.unsafeEnabled = unsafeEnabled && UnsafeUtils.isAvailable();
+        clearCache();
+    }
+
+    /**
+     * Returns whether serializers are generated at runtime for registered classes.
+     * <p>
+     * Code generation is enabled by default and it requires {@link #isUnsafeEnabled() Unsafe}. It can be disabled
+     * with the system property {@code binserde.codegen=false} or by calling {@link #setCodeGenerationEnabled(boolean)},
+     * in which case all classes are serialized with reflection.
+     *
+     * @return {@code true} if serializers are generated, {@code false} otherwise
+     */
+    public boolean isCodeGenerationEnabled() {
+        return codeGenerationEnabled;
+    }
+
+    /**
+     * Changes whether serializers are generated at runtime for registered classes.
+     *
+     * @param codeGenerationEnabled {@code true} to generate serializers, {@code false} to use reflection
+     */
+    public void setCodeGenerationEnabled(boolean codeGenerationEnabled) {
+        this.codeGenerationEnabled = codeGenerationEnabled;
+        clearCache();
+    }
+
+    /**
+     * Returns whether classes without a no-arg constructor are instantiated without running a constructor.
+     * <p>
+     * Allocation is disabled by default, in which case deserializing a class without a no-arg constructor fails.
+     * It can be enabled with the system property {@code binserde.allocate=true} or by calling
+     * {@link #setAllocationEnabled(boolean)}, and it requires {@link sun.misc.Unsafe}. Fields not present in the
+     * stream keep their default values (zero, {@code false} or {@code null}), field initializers do not run.
+     *
+     * @return {@code true} if instances are allocated without a constructor, {@code false} otherwise
+     */
+    public boolean isAllocationEnabled() {
+        return allocationEnabled;
+    }
+
+    /**
+     * Changes whether classes without a no-arg constructor are instantiated without running a constructor.
+     * <p>
+     * Allocation cannot be enabled if {@link sun.misc.Unsafe} is not available in the JVM.
+     *
+     * @param allocationEnabled {@code true} to allocate instances, {@code false} to require a no-arg constructor
+     */
+    public void setAllocationEnabled(boolean allocationEnabled) {
+        this.allocationEnabled = allocationEnabled && UnsafeUtils.isAvailable();
+        clearCache();
+    }
+
+    /**
+     * Returns the cache used to intern the values of fields annotated with {@link net.microfalx.binserde.annotation.Intern}.
+     * <p>
+     * Interning is disabled by default. It can be enabled with the system property {@code binserde.intern=true}
+     * (which uses {@link StringCache#getInstance()}) or by calling {@link #setStringCache(StringCache)}.
+     *
+     * @return the cache, {@code null} if Strings are not interned
+     */
+    public StringCache getStringCache() {
+        return stringCache;
+    }
+
+    /**
+     * Changes the cache used to intern the values of fields annotated with {@link net.microfalx.binserde.annotation.Intern}.
+     * <p>
+     * The cache is used by the decoders created after the change, including the decoders created by the factory.
+     *
+     * @param stringCache the cache, {@code null} to disable interning
+     */
+    public void setStringCache(StringCache stringCache) {
+        this.stringCache = stringCache;
+    }
+
     /**
      * Registers a new class. The class needs to be tagged with {@link  Tag}
      *
@@ -158,6 +273,48 @@ public class SerializerFactory {
         }
     }
 
+    /**
+     * Unregisters a class and the provider associated with the class, if any.
+     *
+     * @param clazz the class
+     */
+    public void unregister(Class<?> clazz) {
+        requireNonNull(clazz);
+        synchronized (classesById) {
+            Short identifier = idsByClasses.remove(clazz);
+            if (identifier != null) classesById.remove(identifier);
+        }
+        providers.remove(clazz);
+        clearCache();
+    }
+
+    /**
+     * Registers a provider for serializers, in addition to the providers discovered with {@link ServiceLoader}.
+     *
+     * @param provider the provider
+     */
+    public void registerProvider(SerializerProvider<?> provider) {
+        requireNonNull(provider);
+        providers.put(provider.getType(), provider);
+        clearCache();
+    }
+
+    /**
+     * Returns the provider associated with a class.
+     * <p>
+     * Providers are discovered with {@link ServiceLoader} the first time this method is called.
+     *
+     * @param clazz the class
+     * @param <T>   the data type
+     * @return the provider, {@code null} if the class has no provider
+     */
+    @SuppressWarnings("unchecked")
+    public <T> SerializerProvider<T> findProvider(Class<T> clazz) {
+        requireNonNull(clazz);
+        if (!providersLoaded) loadProviders();
+        return (SerializerProvider<T>) providers.get(clazz);
+    }
+
     /**
      * Returns whether the class has an identifier registered with the registry.
      *
@@ -196,33 +353,101 @@ public class SerializerFactory {
         return clazz;
     }
 
+    /**
+     * Returns a serializer for a given type.
+     * <p>
+     * Serializers are created once per type and shared, they are safe to use from multiple threads.
+     *
+     * @param type the class to serialize
+     * @param <T>  the data type
+     * @return a non-null instance
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Serializer<T> getSerializer(Class<T> type) {
+        requireNonNull(type);
+        Serializer<?> serializer = serializers.get(type);
+        if (serializer == null) serializer = serializers.computeIfAbsent(type, this::createSerializer);
+        return (Serializer<T>) serializer;
+    }
+
+    /**
+     * Returns a deserializer for a given type.
+     * <p>
+     * Deserializers are created once per type and shared, they are safe to use from multiple threads.
+     *
+     * @param type the class to deserialize
+     * @param <T>  the data type
+     * @return a non-null instance
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Deserializer<T> getDeserializer(Class<T> type) {
+        requireNonNull(type);
+        Deserializer<?> deserializer = deserializers.get(type);
+        if (deserializer == null) deserializer = deserializers.computeIfAbsent(type, this::createDeserializer);
+        return (Deserializer<T>) deserializer;
+    }
+
     /**
      * Creates a serializer for a given type.
+     * <p>
+     * A serializer from a {@link SerializerProvider} is preferred, followed by a serializer generated at runtime. Reflection
+     * is used for all other types.
      *
      * @param type the class to serialize
      * @param <T>  the data type
      * @return a non-null instance
      */
     public <T> Serializer<T> createSerializer(Class<T> type) {
+        SerializerProvider<T> provider = findProvider(type);
+        if (provider != null) return provider.createSerializer();
+        if (isGenerated(type)) return SerializerGenerator.getInstance().createSerializer(type);
         return new ReflectionSerializer<>(type);
     }
 
     /**
      * Creates a deserializer for a given type.
+     * <p>
+     * A deserializer from a {@link SerializerProvider} is preferred, followed by a deserializer generated at runtime. Reflection
+     * is used for all other types.
      *
      * @param type the class to serialize
      * @param <T>  the data type
      * @return a non-null instance
      */
     public <T> Deserializer<T> createDeserializer(Class<T> type) {
+        SerializerProvider<T> provider = findProvider(type);
+        if (provider != null) return provider.createDeserializer();
+        if (isGenerated(type)) return SerializerGenerator.getInstance().createDeserializer(type);
         return new ReflectionDeserializer<>(type);
     }
 
+    private boolean isGenerated(Class<?> type) {
+        return codeGenerationEnabled && SerializerGenerator.getInstance().isSupported(type);
+    }
+
+    private void loadProviders() {
+        synchronized (providers) {
+            if (providersLoaded) return;
+            for (SerializerProvider<?> provider : ServiceLoader.load(SerializerProvider.class)) {
+                providers.putIfAbsent(provider.getType(), provider);
+            }
+            providersLoaded = true;
+        }
+    }
+
+    private void clearCache() {
+        serializers.clear();
+        deserializers.clear();
+        ClassInfo.clearCache();
+        ReflectionDeserializer.clearCache();
+    }
+
     /**
      * Resets the factory.
      */
     void reset() {
         idsByClasses.clear();
         classesById.clear();
+        clearCache();
     }
 }
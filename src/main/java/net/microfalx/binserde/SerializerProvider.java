@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package net.microfalx.binserde;
+
+import net.microfalx.binserde.deserializer.Deserializer;
+import net.microfalx.binserde.metadata.ClassInfo;
+import net.microfalx.binserde.serializer.Serializer;
+
+/**
+ * Provides class information, a serializer and a deserializer for a type, without reflection.
+ * <p>
+ * Providers are usually generated at build time by the {@code binserde-processor} annotation processor, for
+ * every class annotated with {@link net.microfalx.binserde.annotation.Tag}, and they are discovered with
+ * {@link java.util.ServiceLoader}. The type still needs to be registered with the {@link SerializerFactory}.
+ *
+ * @param <T> the data type
+ */
+public interface SerializerProvider<T> {
+
+    /**
+     * Returns the type supported by this provider.
+     *
+     * @return a non-null instance
+     */
+    Class<T> getType();
+
+    /**
+     * Creates the class information for the type.
+     * <p>
+     * The method is called once, the class information is cached by {@link ClassInfo#create(Class)}.
+     *
+     * @return a non-null instance
+     */
+    ClassInfo createClassInfo();
+
+    /**
+     * Creates a serializer for the type.
+     *
+     * @return a non-null instance
+     */
+    Serializer<T> createSerializer();
+
+    /**
+     * Creates a deserializer for the type.
+     *
+     * @return a non-null instance
+     */
+    Deserializer<T> createDeserializer();
+}
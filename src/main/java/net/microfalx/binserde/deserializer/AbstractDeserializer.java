@@ -19,6 +19,10 @@
 
 package net.microfalx.binserde.deserializer;
 
+import net.microfalx.binserde.io.Decoder;
+
+import java.io.IOException;
+
 import static net.microfalx.binserde.utils.ArgumentUtils.requireNonNull;
 
 public abstract class AbstractDeserializer<T> implements Deserializer<T> {
@@ -34,4 +38,10 @@ public abstract class AbstractDeserializer<T> implements Deserializer<T> {
     public final Class<T> getType() {
         return type;
     }
+
+    @Override
+    public T deserialize(Decoder decoder) throws IOException {
+        requireNonNull(decoder);
+        return deserialize(new DeserializerContext(decoder));
+    }
 }
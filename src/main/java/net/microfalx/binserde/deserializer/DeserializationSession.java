@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package net.microfalx.binserde.deserializer;
+
+import net.microfalx.binserde.SerializerFactory;
+import net.microfalx.binserde.io.Decoder;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import static net.microfalx.binserde.utils.ArgumentUtils.requireNonNull;
+
+/**
+ * Deserializes many objects from the same stream, written with a
+ * {@link net.microfalx.binserde.serializer.SerializationSession}.
+ * <p>
+ * The session remembers the classes already read from the stream, so objects can refer to class information
+ * received with a previous object.
+ * <p>
+ * A session is not thread-safe.
+ */
+public final class DeserializationSession implements Closeable {
+
+    private final DeserializerContext context;
+
+    public DeserializationSession(Decoder decoder) {
+        requireNonNull(decoder);
+        this.context = new DeserializerContext(decoder);
+    }
+
+    /**
+     * Returns the decoder used by this session.
+     *
+     * @return a non-null instance
+     */
+    public Decoder getDecoder() {
+        return context.getDecoder();
+    }
+
+    /**
+     * Deserializes the next object.
+     *
+     * @param type the type to deserialize
+     * @param <T>  the object type
+     * @return the object
+     * @throws IOException if an I/O error occurs
+     */
+    public <T> T deserialize(Class<T> type) throws IOException {
+        requireNonNull(type);
+        return SerializerFactory.getInstance().getDeserializer(type).deserialize(context);
+    }
+
+    /**
+     * Closes the session and the decoder.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        context.getDecoder().close();
+    }
+}
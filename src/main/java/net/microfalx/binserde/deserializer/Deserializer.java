@@ -28,4 +28,15 @@ public interface Deserializer<T> {
     Class<T> getType();
 
     T deserialize(Decoder decoder) throws IOException;
+
+    /**
+     * Deserializes an object within an existing context, usually held by a {@link DeserializationSession}.
+     * <p>
+     * Class information already read with the context can be referenced by the object, without being stored again.
+     *
+     * @param context the context
+     * @return the object
+     * @throws IOException if an I/O error occurs
+     */
+    T deserialize(DeserializerContext context) throws IOException;
 }
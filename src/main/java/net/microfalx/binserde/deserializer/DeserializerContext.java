@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package net.microfalx.binserde.deserializer;
+
+import net.microfalx.binserde.io.Decoder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static net.microfalx.binserde.utils.ArgumentUtils.requireNonNull;
+
+/**
+ * Holds the state of a deserialization call: the decoder and the classes read from the stream.
+ * <p>
+ * A context is created for every call of {@link Deserializer#deserialize(Decoder)}, which allows deserializers to
+ * be shared between threads. A {@link DeserializationSession} keeps the same context for many objects.
+ */
+public final class DeserializerContext {
+
+    private final Decoder decoder;
+    private final Map<Short, ReflectionDeserializer.ClassMapping> mappingByIdentifier = new HashMap<>();
+
+    DeserializerContext(Decoder decoder) {
+        requireNonNull(decoder);
+        this.decoder = decoder;
+    }
+
+    /**
+     * Returns the decoder used by this deserialization.
+     *
+     * @return a non-null instance
+     */
+    public Decoder getDecoder() {
+        return decoder;
+    }
+
+    Map<Short, ReflectionDeserializer.ClassMapping> getMappingByIdentifier() {
+        return mappingByIdentifier;
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package net.microfalx.binserde.deserializer;
+
+import java.io.IOException;
+
+/**
+ * Reads one field of an object, as stored in the stream.
+ * <p>
+ * Readers are resolved once per class mapping, when the class is deserialized for the first time.
+ */
+@FunctionalInterface
+interface FieldReader {
+
+    /**
+     * Reads the field and updates the object, if the field still exists in the local class.
+     *
+     * @param context  the deserialization context
+     * @param instance the object which holds the field
+     * @throws IOException if an I/O error occurs
+     */
+    void read(DeserializerContext context, Object instance) throws IOException;
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package net.microfalx.binserde.deserializer;
+
+import net.microfalx.binserde.metadata.ClassInfo;
+import net.microfalx.binserde.metadata.FieldInfo;
+
+import java.io.IOException;
+import java.util.List;
+
+import static net.microfalx.binserde.utils.ArgumentUtils.requireNonNull;
+
+/**
+ * Base class for deserializers generated for a specific type.
+ * <p>
+ * A generated deserializer reads the fields of its own type with straight-line code, but only when the class stored
+ * in the stream has the same layout as the local class (see {@link ClassMapping#isIdentity()}). In any other case,
+ * the fields are mapped by {@link ReflectionDeserializer}.
+ *
+ * @param <T> the data type
+ */
+public abstract class GeneratedDeserializer<T> extends ReflectionDeserializer<T> {
+
+    private final ClassInfo classInfo;
+    private final FieldReader[] fieldReaders;
+
+    protected GeneratedDeserializer(Class<T> type, ClassInfo classInfo) {
+        super(type);
+        requireNonNull(classInfo);
+        this.classInfo = classInfo;
+        this.fieldReaders = createFieldReaders(classInfo);
+    }
+
+    /**
+     * Returns the class information used to generate the deserializer.
+     *
+     * @return a non-null instance
+     */
+    public final ClassInfo getClassInfo() {
+        return classInfo;
+    }
+
+    @Override
+    final void deserializeFields(DeserializerContext context, ClassMapping classMapping, Object instance) throws IOException {
+        if (classMapping.getLocalClassInfo() == classInfo && classMapping.isIdentity()) {
+            readFields(context, instance);
+        } else {
+            super.deserializeFields(context, classMapping, instance);
+        }
+    }
+
+    /**
+     * Reads all fields of an object of this type.
+     *
+     * @param context  the deserialization context, which holds the decoder
+     * @param instance the object
+     * @throws IOException if an I/O error occurs
+     */
+    protected abstract void readFields(DeserializerContext context, Object instance) throws IOException;
+
+    /**
+     * Reads and sets the value of a field which is not a primitive.
+     *
+     * @param context  the deserialization context
+     * @param instance the object
+     * @param index    the index of the field in {@link ClassInfo#getFields()}
+     * @throws IOException if an I/O error occurs
+     */
+    protected final void readField(DeserializerContext context, Object instance, int index) throws IOException {
+        fieldReaders[index].read(context, instance);
+    }
+
+    private FieldReader[] createFieldReaders(ClassInfo classInfo) {
+        List<FieldInfo> fields = classInfo.getFields();
+        FieldReader[] readers = new FieldReader[fields.size()];
+        for (int index = 0; index < readers.length; index++) {
+            FieldInfo field = fields.get(index);
+            readers[index] = createFieldReader(field, field);
+        }
+        return readers;
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package net.microfalx.binserde.deserializer;
+
+import net.microfalx.binserde.SerializerFactory;
+import net.microfalx.binserde.utils.UnsafeUtils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+
+/**
+ * Creates instances of a class during deserialization.
+ * <p>
+ * The constructor is resolved once, as a method handle. Classes without a no-arg constructor are allocated
+ * without running any constructor, but only when {@link SerializerFactory#isAllocationEnabled()} is on.
+ */
+abstract class Instantiator {
+
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+
+    /**
+     * Creates an instantiator for a class.
+     *
+     * @param clazz the class
+     * @return a non-null instance
+     * @throws DeserializerException if the class cannot be instantiated
+     */
+    static Instantiator create(Class<?> clazz) {
+        Constructor<?> constructor;
+        try {
+            constructor = clazz.getDeclaredConstructor();
+        } catch (NoSuchMethodException e) {
+            if (SerializerFactory.getInstance().isAllocationEnabled()) {
+                return new AllocatingInstantiator(clazz);
+            } else {
+                throw new DeserializerException("A public constructor is not defined for " + clazz.getName(), e);
+            }
+        }
+        try {
+            if (!constructor.isAccessible()) constructor.setAccessible(true);
+            MethodHandle handle = MethodHandles.lookup().unreflectConstructor(constructor);
+            return new ConstructorInstantiator(clazz, handle.asType(CONSTRUCTOR_TYPE));
+        } catch (Exception e) {
+            throw new DeserializerException("Failed to access constructor for " + clazz.getName(), e);
+        }
+    }
+
+    final Class<?> clazz;
+
+    Instantiator(Class<?> clazz) {
+        this.clazz = clazz;
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @return a non-null instance
+     * @throws DeserializerException if the instance cannot be created
+     */
+    abstract Object newInstance();
+
+    final DeserializerException failed(Throwable throwable) {
+        return new DeserializerException("Failed to create instance for " + clazz.getName(), throwable);
+    }
+
+    private static final class ConstructorInstantiator extends Instantiator {
+
+        private final MethodHandle constructor;
+
+        private ConstructorInstantiator(Class<?> clazz, MethodHandle constructor) {
+            super(clazz);
+            this.constructor = constructor;
+        }
+
+        @Override
+        Object newInstance() {
+            try {
+                return (Object) constructor.invokeExact();
+            } catch (Throwable e) {
+                throw failed(e);
+            }
+        }
+    }
+
+    private static final class AllocatingInstantiator extends Instantiator {
+
+        private AllocatingInstantiator(Class<?> clazz) {
+            super(clazz);
+        }
+
+        @Override
+        Object newInstance() {
+            try {
+                return UnsafeUtils.getUnsafe().allocateInstance(clazz);
+            } catch (Exception e) {
+                throw failed(e);
+            }
+        }
+    }
+}
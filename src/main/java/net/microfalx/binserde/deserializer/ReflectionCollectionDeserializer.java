@@ -19,7 +19,6 @@
 
 package net.microfalx.binserde.deserializer;
 
-import net.microfalx.binserde.io.Decoder;
 import net.microfalx.binserde.metadata.DataType;
 
 import java.io.IOException;
@@ -32,7 +31,7 @@ public class ReflectionCollectionDeserializer extends ReflectionFieldDeserialize
     }
 
     @Override
-    Object deserialize(DataType dataType, Decoder decoder) throws IOException {
+    ValueReader createReader(DataType dataType) {
         switch (dataType) {
             case COLLECTION:
             case LIST:
@@ -40,29 +39,29 @@ public class ReflectionCollectionDeserializer extends ReflectionFieldDeserialize
             case QUEUE:
             case DEQUE:
             case SORTED_SET:
-                return deserializeArray(dataType, decoder);
+                return context -> deserializeArray(dataType, context);
             case MAP:
             case SORTED_MAP:
-                return deserializeMap(dataType, decoder);
+                return context -> deserializeMap(dataType, context);
             default:
                 throw new DeserializerException("Unhandled data type " + dataType);
         }
     }
 
-    Object deserializeArray(DataType dataType, Decoder decoder) throws IOException {
-        int size = decoder.readInteger();
+    Object deserializeArray(DataType dataType, DeserializerContext context) throws IOException {
+        int size = context.getDecoder().readInteger();
         Collection<Object> collection = createCollectionType(dataType, size);
         while (size-- > 0) {
-            collection.add(parent.deserializeValue(decoder));
+            collection.add(parent.deserializeValue(context));
         }
         return collection;
     }
 
-    Object deserializeMap(DataType dataType, Decoder decoder) throws IOException {
-        int size = decoder.readInteger();
+    Object deserializeMap(DataType dataType, DeserializerContext context) throws IOException {
+        int size = context.getDecoder().readInteger();
         Map<Object, Object> map = createMapType(dataType, size);
         while (size-- > 0) {
-            map.put(parent.deserializeValue(decoder), parent.deserializeValue(decoder));
+            map.put(parent.deserializeValue(context), parent.deserializeValue(context));
         }
         return map;
     }
@@ -23,138 +23,247 @@ import net.microfalx.binserde.io.Decoder;
 import net.microfalx.binserde.metadata.ClassInfo;
 import net.microfalx.binserde.metadata.DataType;
 import net.microfalx.binserde.metadata.DataTypes;
+import net.microfalx.binserde.metadata.FieldAccessor;
 import net.microfalx.binserde.metadata.FieldInfo;
 import net.microfalx.binserde.utils.ArgumentUtils;
 
 import java.io.IOException;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static net.microfalx.binserde.metadata.DataTypes.*;
 
+/**
+ * A deserializer which discovers the fields with reflection.
+ * <p>
+ * The deserializer holds no state between calls, the state of each call is kept in a {@link DeserializerContext}.
+ * It is safe to share an instance between threads.
+ * <p>
+ * Values are read by readers resolved once per data type and each class stored in the stream is compiled, the
+ * first time it is deserialized, into an array of field readers. The mapping between a class stored in the stream
+ * and the local class is resolved once per class version and shared by all deserializers, while the field readers
+ * are kept by each deserializer, so a shared mapping does not hold on to a deserializer.
+ *
+ * @param <T> the data type
+ */
 public class ReflectionDeserializer<T> extends AbstractDeserializer<T> {
 
-    private final Map<Class<?>, ClassInfo> classes = new HashMap<>();
-    private final Map<String, ClassMapping> mappingsBySignature = new HashMap<>();
-    private final Map<Short, ClassMapping> mappingByIdentifier = new HashMap<>();
-    private Decoder decoder;
-
     private final ReflectionFieldDeserializer otherSerializer = new ReflectionOtherDeserializer(this);
     private final ReflectionFieldDeserializer numberSerializer = new ReflectionNumberDeserializer(this);
     private final ReflectionFieldDeserializer collectionSerializer = new ReflectionCollectionDeserializer(this);
     private final ReflectionFieldDeserializer timeSerializer = new ReflectionTimeDeserializer(this);
 
+    private static final Map<String, ClassMapping> classMappings = new ConcurrentHashMap<>();
+
+    private final ValueReader[] valueReaders = createValueReaders();
+    private final Map<String, FieldReaders> fieldReaders = new ConcurrentHashMap<>();
+
     public ReflectionDeserializer(Class<T> type) {
         super(type);
     }
 
     @SuppressWarnings("unchecked")
     @Override
-    public T deserialize(Decoder decoder) throws IOException {
-        ArgumentUtils.requireNonNull(decoder);
-        this.decoder = decoder;
+    public T deserialize(DeserializerContext context) throws IOException {
+        ArgumentUtils.requireNonNull(context);
 
-        byte tag = decoder.peekTag();
-        if (DataTypes.isClass(tag)) {
-            ClassMapping classMapping = readObjectHeader();
-            return (T) deserializeTree(classMapping, true);
+        byte tag = context.getDecoder().peekTag();
+        if (DataTypes.isClass(tag) || (tag == OBJECT && !context.getMappingByIdentifier().isEmpty())) {
+            ClassMapping classMapping = readObjectHeader(context);
+            return (T) deserializeTree(context, classMapping);
         } else {
             throw new DeserializerException("A class signature is expected, but received tag " + tagToString(tag));
         }
     }
 
-    Object deserializeValue(Decoder decoder) throws IOException {
+    Object deserializeValue(DeserializerContext context) throws IOException {
+        Decoder decoder = context.getDecoder();
         byte tag = decoder.peekTag();
         if (tag == NULL) {
+            decoder.readTag();
             return null;
         } else {
             tag = decoder.readTag();
             if (tag != OBJECT) throw new DeserializerException("Expected object tag, got " + DataTypes.tagToString(tag));
-            DataType dataType = DataType.fromId(decoder.readTag());
-            return deserializeBasic(dataType);
+            DataType dataType = DataType.fromTypeId(decoder.readTag());
+            return getValueReader(dataType).read(context);
         }
     }
 
-    private Object deserializeTree(ClassMapping classMapping, boolean root) throws IOException {
+    private Object deserializeTree(DeserializerContext context, ClassMapping classMapping) throws IOException {
         Object instance = classMapping.createInstance();
-        int fieldIndex = 0;
-        for (FieldInfo streamField : classMapping.streamFields) {
-            DataType streamDataType = streamField.getDataType();
-            FieldInfo localField = classMapping.localFields[fieldIndex++];
-            Field _localField = localField != null ? localField.getField() : null;
-            Object value = null;
-            byte tag = decoder.peekTag();
-            if (tag != NULL) {
-                if (streamField.getDataType() == DataType.OBJECT) {
-                    ClassMapping fieldClassMapping = readObjectHeader();
-                    value = deserializeTree(fieldClassMapping, false);
-                } else {
-                    value = deserializeBasic(streamDataType);
-                }
-            } else {
-                tag = decoder.readTag();
-            }
-            if (_localField != null) {
-                try {
-                    _localField.set(instance, value);
-                } catch (IllegalAccessException e) {
-                    throw new DeserializerException("Failed to set value for field '" + localField.getName(), e);
-                }
-            }
-        }
+        deserializeFields(context, classMapping, instance);
         return instance;
     }
 
-    private Object deserializeBasic(DataType dataType) throws IOException {
+    void deserializeFields(DeserializerContext context, ClassMapping classMapping, Object instance) throws IOException {
+        for (FieldReader fieldReader : getFieldReaders(classMapping)) {
+            fieldReader.read(context, instance);
+        }
+    }
+
+    /**
+     * Returns the reader for values of a given data type.
+     *
+     * @param dataType the data type
+     * @return a non-null instance
+     */
+    final ValueReader getValueReader(DataType dataType) {
+        return valueReaders[dataType.ordinal()];
+    }
+
+    /**
+     * Creates a reader for a field.
+     *
+     * @param streamField the field, as stored in the stream
+     * @param localField  the field of the local class, {@code null} if the field does not exist anymore
+     * @return a non-null instance
+     */
+    final FieldReader createFieldReader(FieldInfo streamField, FieldInfo localField) {
+        if (localField != null && localField.isPrimitive() && streamField.isPrimitive()
+                && localField.getDataType() == streamField.getDataType()) {
+            return createPrimitiveReader(localField);
+        }
+        ValueReader valueReader = localField != null && localField.isIntern() && streamField.getDataType() == DataType.STRING
+                ? context -> context.getDecoder().readString(true) : getValueReader(streamField.getDataType());
+        if (localField == null) {
+            return (context, instance) -> readNullable(context, valueReader);
+        } else {
+            FieldAccessor accessor = localField.getAccessor();
+            return (context, instance) -> accessor.set(instance, readNullable(context, valueReader));
+        }
+    }
+
+    private Object readNullable(DeserializerContext context, ValueReader valueReader) throws IOException {
+        Decoder decoder = context.getDecoder();
+        if (decoder.peekTag() == NULL) {
+            decoder.readTag();
+            return null;
+        } else {
+            return valueReader.read(context);
+        }
+    }
+
+    private FieldReader[] getFieldReaders(ClassMapping classMapping) {
+        String layout = classMapping.streamClassInfo.getLayout();
+        FieldReaders readers = fieldReaders.get(layout);
+        if (readers == null || readers.classMapping != classMapping) {
+            readers = new FieldReaders(classMapping, createFieldReaders(classMapping));
+            fieldReaders.put(layout, readers);
+        }
+        return readers.readers;
+    }
+
+    private FieldReader[] createFieldReaders(ClassMapping classMapping) {
+        FieldReader[] readers = new FieldReader[classMapping.streamFields.length];
+        for (int index = 0; index < readers.length; index++) {
+            readers[index] = createFieldReader(classMapping.streamFields[index], classMapping.localFields[index]);
+        }
+        return readers;
+    }
+
+    private FieldReader createPrimitiveReader(FieldInfo fieldInfo) {
+        FieldAccessor accessor = fieldInfo.getAccessor();
+        switch (fieldInfo.getDataType()) {
+            case BOOLEAN:
+                return (context, instance) -> accessor.setBoolean(instance, context.getDecoder().readBoolean());
+            case CHARACTER:
+                return (context, instance) -> accessor.setCharacter(instance, context.getDecoder().readCharacter());
+            case BYTE:
+                return (context, instance) -> accessor.setByte(instance, context.getDecoder().readByte());
+            case SHORT:
+                return (context, instance) -> accessor.setShort(instance, context.getDecoder().readShort());
+            case INTEGER:
+                return (context, instance) -> accessor.setInteger(instance, context.getDecoder().readInteger());
+            case LONG:
+                return (context, instance) -> accessor.setLong(instance, context.getDecoder().readLong());
+            case FLOAT:
+                return (context, instance) -> accessor.setFloat(instance, context.getDecoder().readFloat());
+            case DOUBLE:
+                return (context, instance) -> accessor.setDouble(instance, context.getDecoder().readDouble());
+            default:
+                throw new DeserializerException("Unhandled primitive data type " + fieldInfo.getDataType());
+        }
+    }
+
+    private ValueReader[] createValueReaders() {
+        DataType[] dataTypes = DataType.values();
+        ValueReader[] readers = new ValueReader[dataTypes.length];
+        for (DataType dataType : dataTypes) {
+            readers[dataType.ordinal()] = createValueReader(dataType);
+        }
+        return readers;
+    }
+
+    private ValueReader createValueReader(DataType dataType) {
+        if (dataType == DataType.OBJECT) return context -> deserializeTree(context, readObjectHeader(context));
         switch (dataType.getCategory()) {
             case OTHER:
-                return otherSerializer.deserialize(dataType, decoder);
+                return otherSerializer.createReader(dataType);
             case NUMBER:
-                return numberSerializer.deserialize(dataType, decoder);
+                return numberSerializer.createReader(dataType);
             case COLLECTION:
-                return collectionSerializer.deserialize(dataType, decoder);
+                return collectionSerializer.createReader(dataType);
             case TIME:
-                return timeSerializer.deserialize(dataType, decoder);
+                return timeSerializer.createReader(dataType);
             default:
                 throw new DeserializerException("Unhandled category " + dataType.getCategory());
         }
     }
 
+    /**
+     * Discards the mappings between the classes stored in streams and the local classes.
+     * <p>
+     * The method is called by the {@link net.microfalx.binserde.SerializerFactory} when its configuration changes,
+     * so the mappings are created again with the new configuration.
+     */
+    public static void clearCache() {
+        classMappings.clear();
+    }
+
+    private void readClass(DeserializerContext context) throws IOException {
+        ClassInfo streamClassInfo = context.getDecoder().readClass();
+        ClassMapping classMapping = getClassMapping(streamClassInfo);
+        context.getMappingByIdentifier().putIfAbsent(streamClassInfo.getIdentifier(), classMapping);
+    }
 
-    private void readClass() throws IOException {
-        ClassInfo streamClassInfo = decoder.readClass();
-        classes.putIfAbsent(streamClassInfo.getClazz(), streamClassInfo);
-        ClassMapping classMapping = mappingsBySignature.computeIfAbsent(streamClassInfo.getSignature(),
-                s -> new ClassMapping(ClassInfo.create(streamClassInfo.getClazz()), streamClassInfo));
-        mappingByIdentifier.computeIfAbsent(streamClassInfo.getIdentifier(), integer -> classMapping);
+    private ClassMapping getClassMapping(ClassInfo streamClassInfo) {
+        ClassInfo localClassInfo = ClassInfo.create(streamClassInfo.getClazz());
+        ClassMapping classMapping = classMappings.get(streamClassInfo.getLayout());
+        if (classMapping == null || classMapping.localClassInfo != localClassInfo) {
+            classMapping = new ClassMapping(localClassInfo, streamClassInfo);
+            classMappings.put(streamClassInfo.getLayout(), classMapping);
+        }
+        return classMapping;
     }
 
-    private ClassMapping readObjectHeader() throws IOException {
+    private ClassMapping readObjectHeader(DeserializerContext context) throws IOException {
+        Decoder decoder = context.getDecoder();
         if (DataTypes.isClass(decoder.peekTag())) {
-            readClass();
+            readClass(context);
         }
         byte tag = decoder.readTag();
         if (tag != OBJECT) {
             throw new DeserializerException("Expecting an object tag, got " + DataTypes.tagToString(tag));
         }
         short identifier = decoder.readShort();
-        ClassMapping classMapping = mappingByIdentifier.get(identifier);
+        ClassMapping classMapping = context.getMappingByIdentifier().get(identifier);
         if (classMapping == null) {
             throw new DeserializerException("A class with identifier " + identifier + " is not registered");
         }
         return classMapping;
     }
 
-    private static class ClassMapping {
+    static class ClassMapping {
         private ClassInfo localClassInfo;
         private ClassInfo streamClassInfo;
 
         private FieldInfo[] streamFields;
         private FieldInfo[] localFields;
+        private boolean identity;
+        private volatile Instantiator instantiator;
 
         ClassMapping(ClassInfo localClassInfo, ClassInfo streamClassInfo) {
             ArgumentUtils.requireNonNull(localClassInfo);
@@ -165,30 +274,55 @@ public class ReflectionDeserializer<T> extends AbstractDeserializer<T> {
             initialize();
         }
 
+        ClassInfo getLocalClassInfo() {
+            return localClassInfo;
+        }
+
+        /**
+         * Returns whether the stream fields match the local fields one by one, in the same order and with the same types.
+         *
+         * @return {@code true} if the stream and local class have the same layout, {@code false} otherwise
+         */
+        boolean isIdentity() {
+            return identity;
+        }
+
         private Object createInstance() {
-            try {
-                Constructor<?> declaredConstructor = localClassInfo.getClazz().getDeclaredConstructor();
-                return declaredConstructor.newInstance();
-            } catch (NoSuchMethodException e) {
-                throw new DeserializerException("A public constructor is not defined", e);
-            } catch (Exception e) {
-                throw new DeserializerException("Failed to create instance for " + localClassInfo.getClazz().getName(), e);
+            Instantiator instantiator = this.instantiator;
+            if (instantiator == null) {
+                instantiator = Instantiator.create(localClassInfo.getClazz());
+                this.instantiator = instantiator;
             }
+            return instantiator.newInstance();
         }
 
         private void initialize() {
             streamFields = streamClassInfo.getFields().toArray(new FieldInfo[0]);
             List<FieldInfo> localFields = new ArrayList<>();
             for (FieldInfo fieldInfo : streamClassInfo.getFields()) {
-                FieldInfo localField;
-                if (fieldInfo.getTag() == FieldInfo.NO_TAG) {
-                    localField = localClassInfo.findField(fieldInfo.getName());
-                } else {
-                    localField = localClassInfo.findField(fieldInfo.getTag());
-                }
-                localFields.add(localField);
+                localFields.add(localClassInfo.findField(fieldInfo));
             }
             this.localFields = localFields.toArray(new FieldInfo[0]);
+            List<FieldInfo> localClassFields = localClassInfo.getFields();
+            identity = streamFields.length == localClassFields.size();
+            for (int index = 0; identity && index < streamFields.length; index++) {
+                FieldInfo streamField = streamFields[index];
+                FieldInfo localField = this.localFields[index];
+                identity = localField != null && localField == localClassFields.get(index)
+                        && localField.getDataType() == streamField.getDataType()
+                        && localField.isPrimitive() == streamField.isPrimitive();
+            }
+        }
+    }
+
+    private static class FieldReaders {
+
+        private final ClassMapping classMapping;
+        private final FieldReader[] readers;
+
+        private FieldReaders(ClassMapping classMapping, FieldReader[] readers) {
+            this.classMapping = classMapping;
+            this.readers = readers;
         }
     }
 }
@@ -19,11 +19,8 @@
 
 package net.microfalx.binserde.deserializer;
 
-import net.microfalx.binserde.io.Decoder;
 import net.microfalx.binserde.metadata.DataType;
 
-import java.io.IOException;
-
 abstract class ReflectionFieldDeserializer {
 
     protected final ReflectionDeserializer<?> parent;
@@ -32,5 +29,12 @@ abstract class ReflectionFieldDeserializer {
         this.parent = parent;
     }
 
-    abstract Object deserialize(DataType dataType, Decoder decoder) throws IOException;
+    /**
+     * Creates the reader for values of a given data type.
+     *
+     * @param dataType the data type
+     * @return a non-null instance
+     * @throws DeserializerException if the data type is not handled by this deserializer
+     */
+    abstract ValueReader createReader(DataType dataType);
 }
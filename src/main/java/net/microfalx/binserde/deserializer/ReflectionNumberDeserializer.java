@@ -34,30 +34,38 @@ public class ReflectionNumberDeserializer extends ReflectionFieldDeserializer {
     }
 
     @Override
-    Object deserialize(DataType dataType, Decoder decoder) throws IOException {
+    ValueReader createReader(DataType dataType) {
         switch (dataType) {
             case BYTE:
-                return decoder.readByte();
+                return context -> context.getDecoder().readByte();
             case SHORT:
-                return decoder.readShort();
+                return context -> context.getDecoder().readShort();
             case INTEGER:
-                return decoder.readInteger();
+                return context -> context.getDecoder().readInteger();
             case LONG:
-                return decoder.readLong();
+                return context -> context.getDecoder().readLong();
             case FLOAT:
-                return decoder.readFloat();
+                return context -> context.getDecoder().readFloat();
             case DOUBLE:
-                return decoder.readDouble();
+                return context -> context.getDecoder().readDouble();
             case BIG_INTEGER:
-                return new BigInteger(decoder.readBytes());
+                return context -> readBigInteger(context.getDecoder());
             case BIG_DECIMAL:
-                int precision = decoder.readInteger();
-                int scale = decoder.readInteger();
-                BigInteger integer = new BigInteger(decoder.readBytes());
-                MathContext context = new MathContext(precision);
-                return new BigDecimal(integer, scale, context);
+                return context -> readBigDecimal(context.getDecoder());
             default:
                 throw new DeserializerException("Unhandled data type " + dataType);
         }
     }
+
+    private BigInteger readBigInteger(Decoder decoder) throws IOException {
+        return new BigInteger(decoder.readBytes());
+    }
+
+    private BigDecimal readBigDecimal(Decoder decoder) throws IOException {
+        int precision = decoder.readInteger();
+        int scale = decoder.readInteger();
+        BigInteger integer = new BigInteger(decoder.readBytes());
+        MathContext mathContext = new MathContext(precision);
+        return new BigDecimal(integer, scale, mathContext);
+    }
 }
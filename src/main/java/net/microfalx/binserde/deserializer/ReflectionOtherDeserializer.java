@@ -20,11 +20,8 @@
 package net.microfalx.binserde.deserializer;
 
 import net.microfalx.binserde.SerializerFactory;
-import net.microfalx.binserde.io.Decoder;
 import net.microfalx.binserde.metadata.DataType;
 
-import java.io.IOException;
-
 public class ReflectionOtherDeserializer extends ReflectionFieldDeserializer {
 
     private final SerializerFactory factory = SerializerFactory.getInstance();
@@ -33,18 +30,17 @@ public class ReflectionOtherDeserializer extends ReflectionFieldDeserializer {
         super(parent);
     }
 
-    @SuppressWarnings("unchecked")
     @Override
-    Object deserialize(DataType dataType, Decoder decoder) throws IOException {
+    ValueReader createReader(DataType dataType) {
         switch (dataType) {
             case BOOLEAN:
-                return decoder.readBoolean();
+                return context -> context.getDecoder().readBoolean();
             case CHARACTER:
-                return decoder.readCharacter();
+                return context -> context.getDecoder().readCharacter();
             case STRING:
-                return decoder.readString();
+                return context -> context.getDecoder().readString();
             case ENUM:
-                return decoder.readEnum();
+                return context -> context.getDecoder().readEnum();
             default:
                 throw new DeserializerException("Unhandled data type " + dataType);
         }
@@ -32,28 +32,28 @@ public class ReflectionTimeDeserializer extends ReflectionFieldDeserializer {
     }
 
     @Override
-    Object deserialize(DataType dataType, Decoder decoder) throws IOException {
+    ValueReader createReader(DataType dataType) {
         switch (dataType) {
             case TIME_DURATION:
-                return readDuration(decoder);
+                return context -> readDuration(context.getDecoder());
             case TIME_INSTANT:
-                return readInstant(decoder);
+                return context -> readInstant(context.getDecoder());
             case TIME_LOCAL_DATE:
-                return readLocalDate(decoder);
+                return context -> readLocalDate(context.getDecoder());
             case TIME_LOCAL_TIME:
-                return readLocalTime(decoder);
+                return context -> readLocalTime(context.getDecoder());
             case TIME_LOCAL_DATETIME:
-                return readLocalDateTime(decoder);
+                return context -> readLocalDateTime(context.getDecoder());
             case TIME_OFFSET_DATETIME:
-                return readOffsetDateTime(decoder);
+                return context -> readOffsetDateTime(context.getDecoder());
             case TIME_ZONED_DATETIME:
-                return readZonedDateTime(decoder);
+                return context -> readZonedDateTime(context.getDecoder());
             case TIME_PERIOD:
-                return readPeriod(decoder);
+                return context -> readPeriod(context.getDecoder());
             case TIME_ZONE_ID:
-                return readZoneId(decoder);
+                return context -> readZoneId(context.getDecoder());
             case TIME_ZONE_OFFSET:
-                return readZoneOffset(decoder);
+                return context -> readZoneOffset(context.getDecoder());
             default:
                 throw new DeserializerException("Unhandled data type " + dataType);
         }
@@ -0,0 +1,337 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package net.microfalx.binserde.generator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A minimal writer for Java class files.
+ * <p>
+ * The writer supports only what generated serializers need: a final class with a super class, no fields and methods
+ * with straight-line code (no branches, so no stack map frames are required).
+ */
+final class ClassFileWriter {
+
+    static final int ACC_PUBLIC = 0x0001;
+    static final int ACC_PROTECTED = 0x0004;
+    static final int ACC_FINAL = 0x0010;
+    static final int ACC_SUPER = 0x0020;
+
+    private static final int CLASS_VERSION = 52;
+
+    private static final byte CONSTANT_UTF8 = 1;
+    private static final byte CONSTANT_LONG = 5;
+    private static final byte CONSTANT_CLASS = 7;
+    private static final byte CONSTANT_FIELD_REF = 9;
+    private static final byte CONSTANT_METHOD_REF = 10;
+    private static final byte CONSTANT_INTERFACE_METHOD_REF = 11;
+    private static final byte CONSTANT_NAME_AND_TYPE = 12;
+
+    private final ByteArrayOutputStream constantsBuffer = new ByteArrayOutputStream();
+    private final DataOutputStream constants = new DataOutputStream(constantsBuffer);
+    private final Map<String, Integer> constantIndexes = new HashMap<>();
+    private int constantCount = 1;
+
+    private final ByteArrayOutputStream methodsBuffer = new ByteArrayOutputStream();
+    private final DataOutputStream methods = new DataOutputStream(methodsBuffer);
+    private int methodCount;
+
+    private final int thisClass;
+    private final int superClass;
+    private final int codeAttribute;
+
+    ClassFileWriter(String className, String superClassName) {
+        this.thisClass = classRef(className);
+        this.superClass = classRef(superClassName);
+        this.codeAttribute = utf8("Code");
+    }
+
+    /**
+     * Starts a new method.
+     *
+     * @param access     the access flags
+     * @param name       the method name
+     * @param descriptor the method descriptor
+     * @param maxLocals  the number of local variable slots used by the method
+     * @return the code of the method
+     */
+    Code method(int access, String name, String descriptor, int maxLocals) {
+        return new Code(access, utf8(name), utf8(descriptor), maxLocals);
+    }
+
+    /**
+     * Returns the class file.
+     *
+     * @return the bytes of the class
+     */
+    byte[] toByteArray() {
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            DataOutputStream output = new DataOutputStream(buffer);
+            output.writeInt(0xCAFEBABE);
+            output.writeShort(0);
+            output.writeShort(CLASS_VERSION);
+            output.writeShort(constantCount);
+            constantsBuffer.writeTo(output);
+            output.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+            output.writeShort(thisClass);
+            output.writeShort(superClass);
+            output.writeShort(0);
+            output.writeShort(0);
+            output.writeShort(methodCount);
+            methodsBuffer.writeTo(output);
+            output.writeShort(0);
+            output.flush();
+            return buffer.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int utf8(String value) {
+        Integer index = constantIndexes.get("U" + value);
+        if (index != null) return index;
+        try {
+            constants.writeByte(CONSTANT_UTF8);
+            constants.writeUTF(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return register("U" + value, 1);
+    }
+
+    private int classRef(String internalName) {
+        Integer index = constantIndexes.get("C" + internalName);
+        if (index != null) return index;
+        int nameIndex = utf8(internalName);
+        writeConstant(CONSTANT_CLASS, nameIndex);
+        return register("C" + internalName, 1);
+    }
+
+    private int nameAndType(String name, String descriptor) {
+        String key = "N" + name + ":" + descriptor;
+        Integer index = constantIndexes.get(key);
+        if (index != null) return index;
+        int nameIndex = utf8(name);
+        int descriptorIndex = utf8(descriptor);
+        writeConstant(CONSTANT_NAME_AND_TYPE, nameIndex, descriptorIndex);
+        return register(key, 1);
+    }
+
+    private int memberRef(byte type, String owner, String name, String descriptor) {
+        String key = "M" + type + owner + "." + name + ":" + descriptor;
+        Integer index = constantIndexes.get(key);
+        if (index != null) return index;
+        int ownerIndex = classRef(owner);
+        int nameAndTypeIndex = nameAndType(name, descriptor);
+        writeConstant(type, ownerIndex, nameAndTypeIndex);
+        return register(key, 1);
+    }
+
+    private int longConstant(long value) {
+        String key = "J" + value;
+        Integer index = constantIndexes.get(key);
+        if (index != null) return index;
+        try {
+            constants.writeByte(CONSTANT_LONG);
+            constants.writeLong(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return register(key, 2);
+    }
+
+    private void writeConstant(byte type, int... indexes) {
+        try {
+            constants.writeByte(type);
+            for (int index : indexes) {
+                constants.writeShort(index);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int register(String key, int slots) {
+        int index = constantCount;
+        constantIndexes.put(key, index);
+        constantCount += slots;
+        return index;
+    }
+
+    /**
+     * Returns the number of stack slots used by a field or method descriptor (return value or parameters).
+     */
+    private static int slots(String descriptor, int from, int to) {
+        int slots = 0;
+        for (int i = from; i < to; i++) {
+            char c = descriptor.charAt(i);
+            if (c == 'J' || c == 'D') {
+                slots += 2;
+            } else if (c == 'L') {
+                i = descriptor.indexOf(';', i);
+                slots++;
+            } else if (c == '[') {
+                while (descriptor.charAt(i) == '[') i++;
+                if (descriptor.charAt(i) == 'L') i = descriptor.indexOf(';', i);
+                slots++;
+            } else if (c != 'V') {
+                slots++;
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * The code of a method.
+     */
+    final class Code {
+
+        private static final int ALOAD = 0x19;
+        private static final int ASTORE = 0x3A;
+        private static final int BIPUSH = 0x10;
+        private static final int SIPUSH = 0x11;
+        private static final int LDC2_W = 0x14;
+        private static final int CHECKCAST = 0xC0;
+        private static final int GETSTATIC = 0xB2;
+        private static final int INVOKEVIRTUAL = 0xB6;
+        private static final int INVOKESPECIAL = 0xB7;
+        private static final int INVOKESTATIC = 0xB8;
+        private static final int INVOKEINTERFACE = 0xB9;
+        private static final int RETURN = 0xB1;
+
+        private final int access;
+        private final int name;
+        private final int descriptor;
+        private final int maxLocals;
+        private final ByteArrayOutputStream code = new ByteArrayOutputStream();
+
+        private int stack;
+        private int maxStack;
+
+        private Code(int access, int name, int descriptor, int maxLocals) {
+            this.access = access;
+            this.name = name;
+            this.descriptor = descriptor;
+            this.maxLocals = maxLocals;
+        }
+
+        Code aload(int index) {
+            return op(ALOAD, index).push(1);
+        }
+
+        Code astore(int index) {
+            return op(ASTORE, index).push(-1);
+        }
+
+        Code pushInt(int value) {
+            if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+                op(BIPUSH, value);
+            } else {
+                op(SIPUSH, value >> 8, value);
+            }
+            return push(1);
+        }
+
+        Code pushLong(long value) {
+            int index = longConstant(value);
+            return op(LDC2_W, index >> 8, index).push(2);
+        }
+
+        Code checkCast(String internalName) {
+            int index = classRef(internalName);
+            return op(CHECKCAST, index >> 8, index);
+        }
+
+        Code getStatic(String owner, String name, String descriptor) {
+            int index = memberRef(CONSTANT_FIELD_REF, owner, name, descriptor);
+            return op(GETSTATIC, index >> 8, index).push(slots(descriptor, 0, descriptor.length()));
+        }
+
+        Code invokeVirtual(String owner, String name, String descriptor) {
+            int index = memberRef(CONSTANT_METHOD_REF, owner, name, descriptor);
+            return op(INVOKEVIRTUAL, index >> 8, index).invoked(descriptor, true);
+        }
+
+        Code invokeSpecial(String owner, String name, String descriptor) {
+            int index = memberRef(CONSTANT_METHOD_REF, owner, name, descriptor);
+            return op(INVOKESPECIAL, index >> 8, index).invoked(descriptor, true);
+        }
+
+        Code invokeStatic(String owner, String name, String descriptor) {
+            int index = memberRef(CONSTANT_METHOD_REF, owner, name, descriptor);
+            return op(INVOKESTATIC, index >> 8, index).invoked(descriptor, false);
+        }
+
+        Code invokeInterface(String owner, String name, String descriptor) {
+            int index = memberRef(CONSTANT_INTERFACE_METHOD_REF, owner, name, descriptor);
+            int count = slots(descriptor, 1, descriptor.indexOf(')')) + 1;
+            return op(INVOKEINTERFACE, index >> 8, index, count, 0).invoked(descriptor, true);
+        }
+
+        /**
+         * Completes the method with a {@code return} instruction.
+         */
+        void returnVoid() {
+            op(RETURN);
+            try {
+                methods.writeShort(access);
+                methods.writeShort(name);
+                methods.writeShort(descriptor);
+                methods.writeShort(1);
+                methods.writeShort(codeAttribute);
+                methods.writeInt(12 + code.size());
+                methods.writeShort(maxStack);
+                methods.writeShort(maxLocals);
+                methods.writeInt(code.size());
+                code.writeTo(methods);
+                methods.writeShort(0);
+                methods.writeShort(0);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            methodCount++;
+        }
+
+        private Code invoked(String descriptor, boolean hasReceiver) {
+            int end = descriptor.indexOf(')');
+            int popped = slots(descriptor, 1, end) + (hasReceiver ? 1 : 0);
+            return push(-popped).push(slots(descriptor, end + 1, descriptor.length()));
+        }
+
+        private Code op(int... bytes) {
+            for (int value : bytes) {
+                code.write(value);
+            }
+            return this;
+        }
+
+        private Code push(int slots) {
+            stack += slots;
+            maxStack = Math.max(maxStack, stack);
+            return this;
+        }
+    }
+}
@@ -0,0 +1,290 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package net.microfalx.binserde.generator;
+
+import net.microfalx.binserde.SerializerFactory;
+import net.microfalx.binserde.deserializer.GeneratedDeserializer;
+import net.microfalx.binserde.metadata.ClassInfo;
+import net.microfalx.binserde.metadata.DataType;
+import net.microfalx.binserde.metadata.FieldInfo;
+import net.microfalx.binserde.serializer.GeneratedSerializer;
+import net.microfalx.binserde.utils.UnsafeUtils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Modifier;
+import java.util.List;
+
+import static net.microfalx.binserde.utils.ArgumentUtils.requireNonNull;
+
+/**
+ * Generates, at runtime, serializers and deserializers specialized for a registered type.
+ * <p>
+ * The generated classes are defined in the package of the type and access primitive fields directly with
+ * {@link sun.misc.Unsafe} and constant field offsets. All other fields are delegated back to the reflection
+ * serializer, so the generated code produces exactly the same stream.
+ * <p>
+ * Generated classes are created once per type and reused.
+ */
+public final class SerializerGenerator {
+
+    private static final SerializerGenerator instance = new SerializerGenerator();
+
+    private static final String SERIALIZER_SUFFIX = "$$BinserdeSerializer";
+    private static final String DESERIALIZER_SUFFIX = "$$BinserdeDeserializer";
+
+    private static final String OBJECT = "java/lang/Object";
+    private static final String UNSAFE = "sun/misc/Unsafe";
+    private static final String UNSAFE_UTILS = "net/microfalx/binserde/utils/UnsafeUtils";
+    private static final String ENCODER = "net/microfalx/binserde/io/Encoder";
+    private static final String DECODER = "net/microfalx/binserde/io/Decoder";
+    private static final String SERIALIZER_CONTEXT = "net/microfalx/binserde/serializer/SerializerContext";
+    private static final String DESERIALIZER_CONTEXT = "net/microfalx/binserde/deserializer/DeserializerContext";
+    private static final String DATA_TYPE = "net/microfalx/binserde/metadata/DataType";
+    private static final String GENERATED_SERIALIZER = "net/microfalx/binserde/serializer/GeneratedSerializer";
+    private static final String GENERATED_DESERIALIZER = "net/microfalx/binserde/deserializer/GeneratedDeserializer";
+    private static final String CONSTRUCTOR_DESCRIPTOR = "(Ljava/lang/Class;Lnet/microfalx/binserde/metadata/ClassInfo;)V";
+
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(void.class, Class.class, ClassInfo.class);
+
+    private final ClassValue<MethodHandle> serializers = new ClassValue<MethodHandle>() {
+        @Override
+        protected MethodHandle computeValue(Class<?> type) {
+            return define(type, SERIALIZER_SUFFIX, generateSerializer(type, ClassInfo.create(type)));
+        }
+    };
+
+    private final ClassValue<MethodHandle> deserializers = new ClassValue<MethodHandle>() {
+        @Override
+        protected MethodHandle computeValue(Class<?> type) {
+            return define(type, DESERIALIZER_SUFFIX, generateDeserializer(type, ClassInfo.create(type)));
+        }
+    };
+
+    /**
+     * Returns the singleton instance.
+     *
+     * @return a non-null instance
+     */
+    public static SerializerGenerator getInstance() {
+        return instance;
+    }
+
+    private SerializerGenerator() {
+    }
+
+    /**
+     * Returns whether serializers can be generated for a given type.
+     * <p>
+     * The type must be registered with the {@link SerializerFactory}, {@link sun.misc.Unsafe} must be enabled and
+     * the type cannot have volatile fields. Types described by a {@link net.microfalx.binserde.SerializerProvider} are
+     * not supported.
+     *
+     * @param type the type
+     * @return {@code true} if serializers can be generated, {@code false} otherwise
+     */
+    public boolean isSupported(Class<?> type) {
+        requireNonNull(type);
+        SerializerFactory factory = SerializerFactory.getInstance();
+        if (!factory.isUnsafeEnabled() || !factory.isSupported(type)) return false;
+        if (type.isInterface() || type.isArray() || type.isPrimitive() || Modifier.isAbstract(type.getModifiers())) {
+            return false;
+        }
+        for (FieldInfo field : ClassInfo.create(type).getFields()) {
+            if (field.getField() == null || Modifier.isVolatile(field.getField().getModifiers())) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Creates a generated serializer for a given type.
+     *
+     * @param type the type
+     * @param <T>  the data type
+     * @return a non-null instance
+     * @throws GeneratorException if the serializer cannot be generated
+     */
+    @SuppressWarnings("unchecked")
+    public <T> GeneratedSerializer<T> createSerializer(Class<T> type) {
+        checkSupported(type);
+        try {
+            return (GeneratedSerializer<T>) serializers.get(type).invoke(type, ClassInfo.create(type));
+        } catch (GeneratorException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new GeneratorException("Failed to create serializer for " + type.getName(), e);
+        }
+    }
+
+    /**
+     * Creates a generated deserializer for a given type.
+     *
+     * @param type the type
+     * @param <T>  the data type
+     * @return a non-null instance
+     * @throws GeneratorException if the deserializer cannot be generated
+     */
+    @SuppressWarnings("unchecked")
+    public <T> GeneratedDeserializer<T> createDeserializer(Class<T> type) {
+        checkSupported(type);
+        try {
+            return (GeneratedDeserializer<T>) deserializers.get(type).invoke(type, ClassInfo.create(type));
+        } catch (GeneratorException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new GeneratorException("Failed to create deserializer for " + type.getName(), e);
+        }
+    }
+
+    private void checkSupported(Class<?> type) {
+        if (!isSupported(type)) {
+            throw new GeneratorException("Cannot generate serializers for " + type.getName());
+        }
+    }
+
+    private byte[] generateSerializer(Class<?> type, ClassInfo classInfo) {
+        ClassFileWriter writer = new ClassFileWriter(getInternalName(type) + SERIALIZER_SUFFIX, GENERATED_SERIALIZER);
+        generateConstructor(writer, GENERATED_SERIALIZER);
+        ClassFileWriter.Code code = writer.method(ClassFileWriter.ACC_PROTECTED, "writeFields",
+                "(L" + SERIALIZER_CONTEXT + ";L" + OBJECT + ";)V", 5);
+        code.invokeStatic(UNSAFE_UTILS, "getUnsafe", "()L" + UNSAFE + ";").astore(3);
+        code.aload(1).invokeVirtual(SERIALIZER_CONTEXT, "getEncoder", "()L" + ENCODER + ";").astore(4);
+        for (FieldInfo field : classInfo.getFields()) {
+            DataType dataType = field.getDataType();
+            if (field.isPrimitive()) {
+                String descriptor = getDescriptor(dataType);
+                code.aload(4).aload(3).aload(2).pushLong(UnsafeUtils.getFieldOffset(field.getField()))
+                        .invokeVirtual(UNSAFE, getUnsafeName(dataType, "get"), "(L" + OBJECT + ";J)" + descriptor)
+                        .invokeInterface(ENCODER, "write" + getCodecName(dataType), "(" + descriptor + ")V");
+            } else {
+                code.aload(0).aload(1).getStatic(DATA_TYPE, dataType.name(), "L" + DATA_TYPE + ";")
+                        .aload(3).aload(2).pushLong(UnsafeUtils.getFieldOffset(field.getField()))
+                        .invokeVirtual(UNSAFE, "getObject", "(L" + OBJECT + ";J)L" + OBJECT + ";")
+                        .invokeVirtual(GENERATED_SERIALIZER, "writeValue", "(L" + SERIALIZER_CONTEXT + ";L" + DATA_TYPE
+                                + ";L" + OBJECT + ";)V");
+            }
+        }
+        code.returnVoid();
+        return writer.toByteArray();
+    }
+
+    private byte[] generateDeserializer(Class<?> type, ClassInfo classInfo) {
+        ClassFileWriter writer = new ClassFileWriter(getInternalName(type) + DESERIALIZER_SUFFIX, GENERATED_DESERIALIZER);
+        generateConstructor(writer, GENERATED_DESERIALIZER);
+        ClassFileWriter.Code code = writer.method(ClassFileWriter.ACC_PROTECTED, "readFields",
+                "(L" + DESERIALIZER_CONTEXT + ";L" + OBJECT + ";)V", 5);
+        code.invokeStatic(UNSAFE_UTILS, "getUnsafe", "()L" + UNSAFE + ";").astore(3);
+        code.aload(1).invokeVirtual(DESERIALIZER_CONTEXT, "getDecoder", "()L" + DECODER + ";").astore(4);
+        List<FieldInfo> fields = classInfo.getFields();
+        for (int index = 0; index < fields.size(); index++) {
+            FieldInfo field = fields.get(index);
+            DataType dataType = field.getDataType();
+            if (field.isPrimitive()) {
+                String descriptor = getDescriptor(dataType);
+                code.aload(3).aload(2).pushLong(UnsafeUtils.getFieldOffset(field.getField()))
+                        .aload(4).invokeInterface(DECODER, "read" + getCodecName(dataType), "()" + descriptor)
+                        .invokeVirtual(UNSAFE, getUnsafeName(dataType, "put"), "(L" + OBJECT + ";J" + descriptor + ")V");
+            } else {
+                code.aload(0).aload(1).aload(2).pushInt(index)
+                        .invokeVirtual(GENERATED_DESERIALIZER, "readField", "(L" + DESERIALIZER_CONTEXT + ";L" + OBJECT + ";I)V");
+            }
+        }
+        code.returnVoid();
+        return writer.toByteArray();
+    }
+
+    private void generateConstructor(ClassFileWriter writer, String superClass) {
+        writer.method(ClassFileWriter.ACC_PUBLIC, "<init>", CONSTRUCTOR_DESCRIPTOR, 3)
+                .aload(0).aload(1).aload(2).invokeSpecial(superClass, "<init>", CONSTRUCTOR_DESCRIPTOR)
+                .returnVoid();
+    }
+
+    private MethodHandle define(Class<?> type, String suffix, byte[] bytes) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+            Class<?> generatedClass = lookup.defineClass(bytes);
+            return lookup.findConstructor(generatedClass, CONSTRUCTOR_TYPE);
+        } catch (IllegalAccessException | NoSuchMethodException | LinkageError e) {
+            throw new GeneratorException("Failed to define " + type.getName() + suffix, e);
+        }
+    }
+
+    private static String getInternalName(Class<?> type) {
+        return type.getName().replace('.', '/');
+    }
+
+    private static String getDescriptor(DataType dataType) {
+        switch (dataType) {
+            case BOOLEAN:
+                return "Z";
+            case CHARACTER:
+                return "C";
+            case BYTE:
+                return "B";
+            case SHORT:
+                return "S";
+            case INTEGER:
+                return "I";
+            case LONG:
+                return "J";
+            case FLOAT:
+                return "F";
+            case DOUBLE:
+                return "D";
+            default:
+                throw new GeneratorException("Unhandled primitive data type " + dataType);
+        }
+    }
+
+    private static String getCodecName(DataType dataType) {
+        switch (dataType) {
+            case BOOLEAN:
+                return "Boolean";
+            case CHARACTER:
+                return "Character";
+            case BYTE:
+                return "Byte";
+            case SHORT:
+                return "Short";
+            case INTEGER:
+                return "Integer";
+            case LONG:
+                return "Long";
+            case FLOAT:
+                return "Float";
+            case DOUBLE:
+                return "Double";
+            default:
+                throw new GeneratorException("Unhandled primitive data type " + dataType);
+        }
+    }
+
+    private static String getUnsafeName(DataType dataType, String prefix) {
+        switch (dataType) {
+            case CHARACTER:
+                return prefix + "Char";
+            case INTEGER:
+                return prefix + "Int";
+            default:
+                return prefix + getCodecName(dataType);
+        }
+    }
+}
@@ -24,22 +24,40 @@ import net.microfalx.binserde.deserializer.DeserializerException;
 import net.microfalx.binserde.metadata.ClassInfo;
 import net.microfalx.binserde.metadata.DataTypes;
 import net.microfalx.binserde.metadata.Registry;
+import net.microfalx.binserde.utils.ArgumentUtils;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.StringJoiner;
 
 import static net.microfalx.binserde.metadata.DataTypes.*;
 
+/**
+ * Base class for all decoders.
+ * <p>
+ * The decoder reads values from blocks. Each block is provided by a subclass as a {@link ByteBuffer}, which can be
+ * a heap or a direct buffer, and it is validated (signature, length and hash) before any value is read from it.
+ * Compressed blocks are decompressed, with the codec stored in the block header, into a buffer owned by the decoder
+ * and reused for all blocks.
+ */
 public abstract class AbstractDecoder implements Decoder {
 
     private final SerializerFactory factory = SerializerFactory.getInstance();
     private final Registry registry = SerializerFactory.getInstance().getRegistry();
 
-    private final byte[] buffer = new byte[IOUtils.CHUNK_SIZE];
     private final static byte[] EMPTY_BYTES = new byte[0];
-    private int position = IOUtils.RESERVED_HEADER;
-    private int length = 0;
+    private final static int MAX_STRING_BUFFER_SIZE = 4 * IOUtils.CHUNK_SIZE;
+    private ByteBuffer chunk;
     private byte version;
+    private byte[] compressed;
+    private byte[] decompressed;
+    private byte[] stringBuffer;
+    private String[] stringTable;
+    private StringCache stringCache = SerializerFactory.getInstance().getStringCache();
 
     @Override
     public byte getVersion() throws IOException {
@@ -50,7 +68,7 @@ public abstract class AbstractDecoder implements Decoder {
     @Override
     public byte peekTag() throws IOException {
         require(1);
-        return buffer[position];
+        return chunk.get(chunk.position());
     }
 
     @Override
@@ -176,12 +194,35 @@ public abstract class AbstractDecoder implements Decoder {
 
     @Override
     public final String readString() throws IOException {
+        return readString(false);
+    }
+
+    @Override
+    public final String readString(boolean intern) throws IOException {
+        StringCache cache = intern ? stringCache : null;
         byte tag = readRawByte();
         if (tag == NULL) {
             return null;
         } else if (tag == (BASE | BASE_STRING)) {
             int length = readInteger();
-            return readRawString(length);
+            return readRawString(length, cache);
+        } else if (tag == (BASE | BASE_STRING_DEF)) {
+            int index = readInteger();
+            if (index < 0 || index >= AbstractEncoder.MAX_STRING_TABLE_SIZE) {
+                throw new DecoderException("Corrupted data, invalid string table index " + index);
+            }
+            String value = readRawString(readInteger(), cache);
+            if (stringTable == null || index >= stringTable.length) {
+                stringTable = Arrays.copyOf(stringTable != null ? stringTable : new String[0], Math.max(16, 2 * index + 1));
+            }
+            stringTable[index] = value;
+            return value;
+        } else if (tag == (BASE | BASE_STRING_REF)) {
+            int index = readInteger();
+            if (stringTable == null || index < 0 || index >= stringTable.length || stringTable[index] == null) {
+                throw new DecoderException("Corrupted data, invalid string reference " + index);
+            }
+            return stringTable[index];
         } else {
             throw new DecoderException("Cannot decode string, tag " + DataTypes.tagToString(tag));
         }
@@ -207,94 +248,278 @@ public abstract class AbstractDecoder implements Decoder {
         byte tag = readRawByte();
         if (tag == NULL) {
             return null;
+        } else if (tag == (BASE | BASE_BIN_STREAM)) {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            readRawStream(outputStream);
+            return outputStream.toByteArray();
         } else {
             int length = readInteger();
-            require(length);
-            byte[] bytes = new byte[length];
-            for (int index = 0; index < length; index++) {
-                bytes[index] = buffer[position++];
-            }
-            return bytes;
+            return readRawBytes(length);
+        }
+    }
+
+    @Override
+    public long readBytes(OutputStream value) throws IOException {
+        ArgumentUtils.requireNonNull(value);
+        byte tag = readRawByte();
+        if (tag == NULL) {
+            return -1;
+        } else if (tag == (BASE | BASE_BIN_STREAM)) {
+            return readRawStream(value);
+        } else if (tag == (BASE | BASE_BIN)) {
+            int length = readInteger();
+            readRawBytes(value, length);
+            return length;
+        } else {
+            throw new DecoderException("Cannot decode binary value, tag " + DataTypes.tagToString(tag));
         }
     }
 
-    abstract int read(byte[] buffer, int offset, int length) throws IOException;
+    /**
+     * Returns the next block.
+     * <p>
+     * The buffer starts (at its position) with the block header, followed by the block data, up to its limit.
+     * All block versions must be supported, see {@link IOUtils#getBlockSize(ByteBuffer, int)}.
+     * The decoder reads the block with relative operations, so the buffer is not shared with the caller.
+     *
+     * @return a non-null instance
+     * @throws IOException if an I/O error occurs or there are no more blocks
+     */
+    abstract ByteBuffer readBlock() throws IOException;
+
+    /**
+     * Discards the block being read and the String table, the decoder continues with a new block.
+     */
+    final void resetBlock() {
+        chunk = null;
+        version = 0;
+        stringTable = null;
+    }
+
+    /**
+     * Returns the cache used to intern Strings.
+     *
+     * @return the cache, {@code null} if Strings are not interned
+     */
+    public final StringCache getStringCache() {
+        return stringCache;
+    }
+
+    /**
+     * Changes the cache used to intern Strings read with {@link #readString(boolean)}.
+     * <p>
+     * By default, the decoder uses the cache of the {@link SerializerFactory} (see
+     * {@link SerializerFactory#getStringCache()}), so Strings are not interned unless the factory has a cache.
+     * The cache can be shared between decoders, usually {@link StringCache#getInstance()}.
+     *
+     * @param stringCache the cache, {@code null} to disable interning
+     */
+    public final void setStringCache(StringCache stringCache) {
+        this.stringCache = stringCache;
+    }
+
+    /**
+     * Returns the next block, after it was verified with {@link #verify(ByteBuffer)}.
+     * <p>
+     * Subclasses can read and verify blocks ahead, as long as the blocks are returned in order.
+     *
+     * @return a non-null instance
+     * @throws IOException if an I/O error occurs or there are no more blocks
+     */
+    ByteBuffer nextBlock() throws IOException {
+        ByteBuffer block = readBlock();
+        verify(block);
+        return block;
+    }
+
+    /**
+     * Verifies the header (signature, version and length) and the checksum of a block.
+     * <p>
+     * The position of the buffer is not changed.
+     *
+     * @param block the block, as returned by {@link #readBlock()}
+     * @throws DeserializerException if the block is corrupted or not supported
+     */
+    final void verify(ByteBuffer block) {
+        block = block.duplicate();
+        if (block.remaining() < IOUtils.RESERVED_HEADER) throw new DeserializerException("Corrupted data, invalid block header");
+        for (int index = 0; index < IOUtils.HEADER.length; index++) {
+            if (block.get() != IOUtils.HEADER[index]) throw new DeserializerException("Invalid block header signature");
+        }
+        int storedLength = block.getShort() & 0xFFFF;
+        int storedHash = block.getInt();
+        byte flags = block.get();
+        byte version = IOUtils.getVersion(flags);
+        if (version != IOUtils.VERSION && version != IOUtils.VERSION_LARGE && version != IOUtils.VERSION_COMPRESSED) {
+            throw new DeserializerException("Unsupported block version " + version);
+        }
+        int headerSize = IOUtils.getHeaderSize(version);
+        if (block.remaining() < headerSize - IOUtils.RESERVED_HEADER) {
+            throw new DeserializerException("Corrupted data, invalid block header");
+        }
+        if (version != IOUtils.VERSION) storedLength = (storedLength << 16) | (block.getShort() & 0xFFFF);
+        if (version == IOUtils.VERSION_COMPRESSED) block.position(block.position() + 5);
+        if (storedLength != block.remaining()) throw new DeserializerException("Corrupted data, invalid block length");
+        BlockChecksum checksum = BlockChecksums.find(IOUtils.getChecksumId(flags));
+        if (checksum == null) throw new DeserializerException("Unsupported block checksum " + IOUtils.getChecksumId(flags));
+        int dataHash = checksum.calculate(block, block.position(), storedLength);
+        if (storedHash != dataHash) throw new DeserializerException("Corrupted data, invalid block hash");
+    }
 
     private void require(int bytes) throws IOException {
-        boolean shouldRead = length == 0 || position + bytes > length + IOUtils.RESERVED_HEADER;
-        if (shouldRead) {
-            int read = read(buffer, 0, IOUtils.RESERVED_HEADER);
-            if (read != IOUtils.RESERVED_HEADER) throw new DeserializerException("Corrupted data, invalid block header");
-            length = IOUtils.RESERVED_HEADER;
-            position = 0;
-            for (int index = 0; index < IOUtils.HEADER.length; index++) {
-                if (readRawByte() != IOUtils.HEADER[index]) throw new DeserializerException("Invalid block header signature");
+        if (chunk == null || chunk.remaining() < bytes) {
+            ByteBuffer block = nextBlock();
+            int start = block.position();
+            byte flags = block.get(start + 10);
+            version = IOUtils.getVersion(flags);
+            block.position(start + IOUtils.getHeaderSize(version));
+            if (version == IOUtils.VERSION_COMPRESSED) {
+                int codecId = block.get(start + IOUtils.RESERVED_HEADER_LARGE) & 0xFF;
+                int originalLength = block.getInt(start + IOUtils.RESERVED_HEADER_LARGE + 1);
+                chunk = decompress(block, codecId, originalLength);
+            } else {
+                chunk = block;
             }
-            int storedLength = readRawShort();
-            int storedHash = readRawInteger();
-            version = readRawByte();
-            length = storedLength;
-            int dataLength = read(buffer, IOUtils.RESERVED_HEADER, length);
-            if (storedLength != dataLength) throw new DeserializerException("Corrupted data, invalid block length");
-            int dataHash = IOUtils.hashCode(buffer, IOUtils.RESERVED_HEADER, length);
-            if (storedHash != dataHash) throw new DeserializerException("Corrupted data, invalid block hash");
+            chunk.order(IOUtils.getByteOrder(flags));
+        }
+    }
+
+    private ByteBuffer decompress(ByteBuffer block, int codecId, int originalLength) {
+        BlockCodec codec = BlockCodecs.find(codecId);
+        if (codec == null || codec == BlockCodecs.NONE) throw new DeserializerException("Unsupported block codec " + codecId);
+        if (originalLength < 0 || originalLength > IOUtils.MAX_BLOCK_SIZE) {
+            throw new DeserializerException("Corrupted data, invalid block length");
+        }
+        int length = block.remaining();
+        byte[] input;
+        int inputOffset;
+        if (block.hasArray()) {
+            input = block.array();
+            inputOffset = block.arrayOffset() + block.position();
+        } else {
+            if (compressed == null || compressed.length < length) compressed = new byte[Math.max(length, IOUtils.CHUNK_SIZE)];
+            block.duplicate().get(compressed, 0, length);
+            input = compressed;
+            inputOffset = 0;
+        }
+        if (decompressed == null || decompressed.length < originalLength) {
+            decompressed = new byte[Math.max(originalLength, IOUtils.CHUNK_SIZE)];
         }
+        codec.decompress(input, inputOffset, length, decompressed, 0, originalLength);
+        return ByteBuffer.wrap(decompressed, 0, originalLength);
     }
 
     private byte readRawByte() throws IOException {
         require(1);
-        return buffer[position++];
+        return chunk.get();
     }
 
     private short readRawShort() throws IOException {
         require(2);
-        int b0 = buffer[position++] & 0xFF;
-        int b1 = buffer[position++] & 0xFF;
-        return (short) ((b0 << 8) + b1);
+        return chunk.getShort();
     }
 
     private int readRawInteger() throws IOException {
         require(4);
-        int b0 = buffer[position++] & 0xFF;
-        int b1 = buffer[position++] & 0xFF;
-        int b2 = buffer[position++] & 0xFF;
-        int b3 = buffer[position++] & 0xFF;
-        return (b0 << 24) + (b1 << 16) + (b2 << 8) + b3;
+        return chunk.getInt();
     }
 
     private long readRawLong() throws IOException {
-        require(4);
-        long b0 = buffer[position++] & 0xFF;
-        long b1 = buffer[position++] & 0xFF;
-        long b2 = buffer[position++] & 0xFF;
-        long b3 = buffer[position++] & 0xFF;
-        long b4 = buffer[position++] & 0xFF;
-        long b5 = buffer[position++] & 0xFF;
-        long b6 = buffer[position++] & 0xFF;
-        long b7 = buffer[position++] & 0xFF;
-        return (b0 << 56) + (b1 << 48) + (b2 << 40) + (b3 << 32) + (b4 << 24) + (b5 << 16) + (b6 << 8) + b7;
+        require(8);
+        return chunk.getLong();
     }
 
     private byte[] readRawBytes(int length) throws IOException {
         if (length == 0) return EMPTY_BYTES;
-        require(length);
+        if (length < 0) throw new DecoderException("Corrupted data, invalid length " + length);
         byte[] bytes = new byte[length];
-        for (int index = 0; index < bytes.length; index++) {
-            bytes[index] = buffer[position++];
+        int offset = 0;
+        while (offset < length) {
+            require(1);
+            int count = Math.min(chunk.remaining(), length - offset);
+            chunk.get(bytes, offset, count);
+            offset += count;
         }
         return bytes;
     }
 
-    private String readRawString(int length) throws IOException {
-        byte[] bytes = readRawBytes(length);
-        return new String(bytes);
+    /**
+     * Copies a sequence of bytes, which can span several blocks, to a stream.
+     */
+    private void readRawBytes(OutputStream outputStream, int length) throws IOException {
+        if (length < 0) throw new DecoderException("Corrupted data, invalid length " + length);
+        byte[] buffer = null;
+        try {
+            while (length > 0) {
+                require(1);
+                int count = Math.min(chunk.remaining(), length);
+                if (chunk.hasArray()) {
+                    outputStream.write(chunk.array(), chunk.arrayOffset() + chunk.position(), count);
+                    chunk.position(chunk.position() + count);
+                } else {
+                    if (buffer == null) buffer = ChunkPool.getInstance().acquire();
+                    count = Math.min(count, buffer.length);
+                    chunk.get(buffer, 0, count);
+                    outputStream.write(buffer, 0, count);
+                }
+                length -= count;
+            }
+        } finally {
+            if (buffer != null) ChunkPool.getInstance().release(buffer);
+        }
+    }
+
+    /**
+     * Copies the segments of a binary stream to a stream.
+     */
+    private long readRawStream(OutputStream outputStream) throws IOException {
+        long total = 0;
+        int length;
+        while ((length = readInteger()) != 0) {
+            readRawBytes(outputStream, length);
+            total += length;
+        }
+        return total;
+    }
+
+    /**
+     * Reads a String encoded with UTF-8.
+     * <p>
+     * A String held by a heap block is decoded directly from the block; {@link String} checks (with an intrinsic)
+     * whether all bytes are ASCII and, if so, builds a Latin-1 String with a single copy. A String held by a direct
+     * block, or spanning several blocks, is first copied into a buffer owned by the decoder.
+     * When a cache is provided, the String is looked up in the cache by its bytes.
+     */
+    private String readRawString(int length, StringCache cache) throws IOException {
+        if (length == 0) return "";
+        if (length < 0) throw new DecoderException("Corrupted data, invalid length " + length);
+        require(1);
+        if (length <= chunk.remaining() && chunk.hasArray()) {
+            int position = chunk.position();
+            chunk.position(position + length);
+            if (cache != null) return cache.get(chunk.array(), chunk.arrayOffset() + position, length);
+            return new String(chunk.array(), chunk.arrayOffset() + position, length, StandardCharsets.UTF_8);
+        }
+        if (length > MAX_STRING_BUFFER_SIZE) return new String(readRawBytes(length), StandardCharsets.UTF_8);
+        if (stringBuffer == null || stringBuffer.length < length) {
+            stringBuffer = new byte[Math.max(length, IOUtils.CHUNK_SIZE)];
+        }
+        int offset = 0;
+        while (offset < length) {
+            require(1);
+            int count = Math.min(chunk.remaining(), length - offset);
+            chunk.get(stringBuffer, offset, count);
+            offset += count;
+        }
+        if (cache != null) return cache.get(stringBuffer, 0, length);
+        return new String(stringBuffer, 0, length, StandardCharsets.UTF_8);
     }
 
     @Override
     public String toString() {
         return new StringJoiner(", ", AbstractDecoder.class.getSimpleName() + "[", "]")
-                .add("position=" + position)
-                .add("length=" + length)
+                .add("position=" + (chunk != null ? chunk.position() : 0))
+                .add("length=" + (chunk != null ? chunk.limit() : 0))
                 .toString();
     }
 }
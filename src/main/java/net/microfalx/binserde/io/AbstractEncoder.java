@@ -26,17 +26,53 @@ import net.microfalx.binserde.metadata.Registry;
 import net.microfalx.binserde.utils.ArgumentUtils;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.StringJoiner;
 
 import static net.microfalx.binserde.metadata.DataTypes.*;
 
+/**
+ * Base class for all encoders.
+ * <p>
+ * The encoder writes values in blocks. The space for each block is provided by a subclass as a {@link ByteBuffer},
+ * which can be a heap or a direct buffer; the block header is filled in when the block is complete and the block is
+ * handed back to the subclass, without being copied.
+ * <p>
+ * When a {@link BlockCodec} is set, complete blocks are compressed and the compressed data replaces the data of the
+ * block, in the same buffer. Blocks which are too small or do not compress are written as they are.
+ */
 public abstract class AbstractEncoder implements Encoder {
 
-    private static final byte VERSION = 1;
+    /**
+     * The default size of the smallest block which is compressed
+     */
+    public static final int DEFAULT_COMPRESSION_THRESHOLD = 512;
+
+    /**
+     * The largest number of Strings held by the String table
+     */
+    public static final int MAX_STRING_TABLE_SIZE = 64 * 1024;
+
+    /**
+     * The longest String (in characters) stored in the String table
+     */
+    public static final int MAX_TABLE_STRING_LENGTH = 256;
 
-    private final byte[] buffer = new byte[IOUtils.CHUNK_SIZE];
-    private int position = IOUtils.RESERVED_HEADER;
+    private ByteBuffer chunk;
+    private int blockStart;
+    private int blockSize = IOUtils.CHUNK_SIZE;
+    private BlockChecksum checksum = BlockChecksums.CRC32C;
+    private BlockCodec codec = BlockCodecs.NONE;
+    private int compressionThreshold = DEFAULT_COMPRESSION_THRESHOLD;
+    private ByteOrder byteOrder = ByteOrder.BIG_ENDIAN;
+    private int stringTableSize;
+    private Map<String, Integer> stringTable;
+    private byte[] compressed;
+    private BlockFormat format;
     private final SerializerFactory factory = SerializerFactory.getInstance();
     private final Registry registry = SerializerFactory.getInstance().getRegistry();
 
@@ -123,11 +159,26 @@ public abstract class AbstractEncoder implements Encoder {
     public final void writeString(String value) throws IOException {
         if (value == null) {
             writeRawByte(NULL);
+        } else if (stringTable != null && value.length() <= MAX_TABLE_STRING_LENGTH) {
+            Integer index = stringTable.get(value);
+            if (index != null) {
+                writeRawByte((byte) (BASE | BASE_STRING_REF));
+                writeInteger(index);
+            } else {
+                if (stringTable.size() == stringTableSize) stringTable.clear();
+                index = stringTable.size();
+                stringTable.put(value, index);
+                int length = IOUtils.getUtf8Length(value);
+                writeRawByte((byte) (BASE | BASE_STRING_DEF));
+                writeInteger(index);
+                writeInteger(length);
+                writeRawString(value, length);
+            }
         } else {
-            byte[] data = value.getBytes(StandardCharsets.UTF_8);
+            int length = IOUtils.getUtf8Length(value);
             writeRawByte((byte) (BASE | BASE_STRING));
-            writeInteger(value.length());
-            writeRawBytes(data);
+            writeInteger(length);
+            writeRawString(value, length);
         }
     }
 
@@ -160,6 +211,28 @@ public abstract class AbstractEncoder implements Encoder {
         }
     }
 
+    @Override
+    public void writeBytes(InputStream value) throws IOException {
+        if (value == null) {
+            writeNull();
+            return;
+        }
+        writeRawByte((byte) (BASE | BASE_BIN_STREAM));
+        ChunkPool pool = ChunkPool.getInstance();
+        byte[] buffer = pool.acquire();
+        try {
+            int count;
+            while ((count = value.read(buffer)) != -1) {
+                if (count == 0) continue;
+                writeInteger(count);
+                writeRawBytes(buffer, 0, count);
+            }
+            writeInteger(0);
+        } finally {
+            pool.release(buffer);
+        }
+    }
+
     @Override
     public void writeNull() throws IOException {
         writeRawByte(NULL);
@@ -170,68 +243,386 @@ public abstract class AbstractEncoder implements Encoder {
         writeRawByte(tag);
     }
 
-    abstract void write(byte[] buffer, int offset, int length) throws IOException;
+    /**
+     * Returns the buffer where the next block is written.
+     * <p>
+     * The block starts at the position of the buffer and it can use all the space up to the limit, but not more
+     * than {@link #getBlockSize()}. The buffer is written with relative operations until the block is complete.
+     *
+     * @return a non-null instance
+     * @throws IOException if an I/O error occurs
+     */
+    abstract ByteBuffer nextChunk() throws IOException;
+
+    /**
+     * Writes a complete block.
+     * <p>
+     * The block, including its header, is available between the position and the limit of the buffer.
+     *
+     * @param block the block
+     * @throws IOException if an I/O error occurs
+     */
+    abstract void write(ByteBuffer block) throws IOException;
+
+    /**
+     * Returns the maximum size of a block, including the header.
+     *
+     * @return a positive integer
+     */
+    public final int getBlockSize() {
+        return blockSize;
+    }
+
+    /**
+     * Changes the maximum size of a block, including the header.
+     * <p>
+     * Larger blocks carry fewer headers and they are written with fewer I/O calls. Blocks larger than 32 KB are
+     * stored as large blocks (version 2), which can be read only by a decoder which supports them. The block size
+     * can be changed only before anything is written with the encoder.
+     *
+     * @param blockSize the block size, between 1 KB and 16 MB
+     */
+    public final void setBlockSize(int blockSize) {
+        if (blockSize < 1024 || blockSize > IOUtils.MAX_BLOCK_SIZE) {
+            throw new IllegalArgumentException("Block size must be between 1024 and " + IOUtils.MAX_BLOCK_SIZE);
+        }
+        if (chunk != null) throw new IllegalStateException("Block size cannot be changed after data was written");
+        this.blockSize = blockSize;
+        this.format = null;
+    }
+
+    /**
+     * Returns the checksum stored with each block.
+     *
+     * @return a non-null instance
+     */
+    public final BlockChecksum getChecksum() {
+        return checksum;
+    }
+
+    /**
+     * Changes the checksum stored with each block.
+     * <p>
+     * The checksum is {@link BlockChecksums#CRC32C} by default. The identifier of the checksum is stored in each block,
+     * so the checksum can be changed at any time.
+     *
+     * @param checksum the checksum
+     */
+    public final void setChecksum(BlockChecksum checksum) {
+        ArgumentUtils.requireNonNull(checksum);
+        this.checksum = checksum;
+        this.format = null;
+    }
+
+    /**
+     * Returns the codec used to compress blocks.
+     *
+     * @return a non-null instance
+     */
+    public final BlockCodec getCodec() {
+        return codec;
+    }
+
+    /**
+     * Changes the codec used to compress blocks.
+     * <p>
+     * Blocks are not compressed by default ({@link BlockCodecs#NONE}). The identifier of the codec is stored in each
+     * compressed block (version 3), so the codec can be changed at any time.
+     *
+     * @param codec the codec
+     */
+    public final void setCodec(BlockCodec codec) {
+        ArgumentUtils.requireNonNull(codec);
+        this.codec = codec;
+        this.format = null;
+    }
+
+    /**
+     * Returns the size of the smallest block which is compressed.
+     *
+     * @return a positive integer
+     */
+    public final int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    /**
+     * Changes the size of the smallest block which is compressed; smaller blocks are written as they are.
+     *
+     * @param compressionThreshold the size of the data in the block, in bytes
+     */
+    public final void setCompressionThreshold(int compressionThreshold) {
+        if (compressionThreshold < 0) throw new IllegalArgumentException("Compression threshold cannot be negative");
+        this.compressionThreshold = compressionThreshold;
+        this.format = null;
+    }
+
+    /**
+     * Returns the byte order of the values stored in blocks.
+     *
+     * @return a non-null instance
+     */
+    public final ByteOrder getByteOrder() {
+        return byteOrder;
+    }
+
+    /**
+     * Changes the byte order of the values stored in blocks.
+     * <p>
+     * Values are stored in big-endian byte order by default. With {@link ByteOrder#nativeOrder()}, fixed size values
+     * are written and read without reordering their bytes on little-endian hosts. The byte order is marked in each
+     * block and the change applies starting with the next block.
+     *
+     * @param byteOrder the byte order
+     */
+    public final void setByteOrder(ByteOrder byteOrder) {
+        ArgumentUtils.requireNonNull(byteOrder);
+        this.byteOrder = byteOrder;
+    }
+
+    /**
+     * Returns the number of Strings held by the String table.
+     *
+     * @return a positive integer, 0 if the String table is disabled
+     */
+    public final int getStringTableSize() {
+        return stringTableSize;
+    }
+
+    /**
+     * Changes the number of Strings held by the String table.
+     * <p>
+     * The String table is disabled by default. When enabled, the first occurrence of a String (up to
+     * {@link #MAX_TABLE_STRING_LENGTH} characters) is written with the index of its entry in the table and following
+     * occurrences are written as a reference to the entry. When the table is full, it starts again with an empty
+     * table, so the memory used by the encoder and the decoder does not grow with the stream. The table is also
+     * cleared when the encoder is reset.
+     *
+     * @param stringTableSize the number of Strings, between 0 (disabled) and {@link #MAX_STRING_TABLE_SIZE}
+     */
+    public final void setStringTableSize(int stringTableSize) {
+        if (stringTableSize < 0 || stringTableSize > MAX_STRING_TABLE_SIZE) {
+            throw new IllegalArgumentException("String table size must be between 0 and " + MAX_STRING_TABLE_SIZE);
+        }
+        this.stringTableSize = stringTableSize;
+        this.stringTable = stringTableSize > 0 ? new HashMap<>() : null;
+    }
 
     protected final void flush() throws IOException {
-        short length = (short) (position - IOUtils.RESERVED_HEADER);
-        short totalLength = (short) position;
-        int hash = IOUtils.hashCode(buffer, IOUtils.RESERVED_HEADER, length);
-        position = 0;
-        for (int index = 0; index < IOUtils.HEADER.length; index++) {
-            buffer[position++] = IOUtils.HEADER[index];
+        ByteBuffer chunk = getChunk();
+        chunk.limit(chunk.position()).position(blockStart);
+        this.chunk = null;
+        complete(chunk, getFormat());
+    }
+
+    /**
+     * Completes a block: the block is sealed and written.
+     * <p>
+     * Subclasses can defer the work, as long as the block is sealed with {@link #seal(ByteBuffer, BlockFormat)}
+     * before it is written and the buffer is not returned again by {@link #nextChunk()} until then.
+     *
+     * @param block  the block, with the header space and the data between the position and the limit
+     * @param format the format of the block, captured when the block was completed
+     * @throws IOException if an I/O error occurs
+     */
+    void complete(ByteBuffer block, BlockFormat format) throws IOException {
+        seal(block, format);
+        write(block);
+    }
+
+    /**
+     * Seals a block: the data is compressed (if a codec is set) and the block header is filled in.
+     * <p>
+     * After the call, the block (including its header) is available between the position and the limit of the buffer.
+     * The method does not read the settings of the encoder, which can change while the block waits to be sealed.
+     *
+     * @param chunk  the block, with the header space and the data between the position and the limit
+     * @param format the format of the block
+     */
+    final void seal(ByteBuffer chunk, BlockFormat format) {
+        byte order = chunk.order() == ByteOrder.LITTLE_ENDIAN ? IOUtils.LITTLE_ENDIAN : 0;
+        chunk.order(ByteOrder.BIG_ENDIAN);
+        BlockChecksum checksum = format.checksum;
+        BlockCodec codec = format.codec;
+        byte version = format.version;
+        int headerSize = IOUtils.getHeaderSize(version);
+        int blockStart = chunk.position();
+        int end = chunk.limit();
+        int length = end - blockStart - headerSize;
+        int originalLength = length;
+        if (codec != BlockCodecs.NONE && length >= format.compressionThreshold) {
+            int compressedLength = compress(codec, chunk, blockStart + headerSize, length, headerSize);
+            if (compressedLength > 0) {
+                version = IOUtils.VERSION_COMPRESSED;
+                headerSize = IOUtils.RESERVED_HEADER_COMPRESSED;
+                length = compressedLength;
+                end = blockStart + headerSize + length;
+                chunk.position(blockStart + headerSize);
+                chunk.put(compressed, 0, length);
+            }
+        }
+        int hash = checksum.calculate(chunk, blockStart + headerSize, length);
+        chunk.position(blockStart);
+        chunk.put(IOUtils.HEADER);
+        chunk.putShort((short) (version == IOUtils.VERSION ? length : length >>> 16));
+        chunk.putInt(hash);
+        chunk.put((byte) (version | order | (checksum.getId() << 4)));
+        if (version != IOUtils.VERSION) chunk.putShort((short) length);
+        if (version == IOUtils.VERSION_COMPRESSED) {
+            chunk.put((byte) codec.getId());
+            chunk.putInt(originalLength);
+        }
+        chunk.limit(end).position(blockStart);
+    }
+
+    /**
+     * Discards the block being written and the String table, the encoder starts with a new block.
+     */
+    final void resetChunk() {
+        chunk = null;
+        blockStart = 0;
+        if (stringTable != null) stringTable.clear();
+    }
+
+    private ByteBuffer getChunk() throws IOException {
+        if (chunk == null) {
+            ByteBuffer chunk = nextChunk();
+            blockStart = chunk.position();
+            chunk.limit(Math.min(chunk.limit(), blockStart + blockSize));
+            chunk.position(blockStart + IOUtils.getHeaderSize(getVersion()));
+            chunk.order(byteOrder);
+            this.chunk = chunk;
+        }
+        return chunk;
+    }
+
+    /**
+     * Compresses the data of a block into the compression buffer.
+     *
+     * @return the length of the compressed data, -1 if the compressed block is not smaller
+     */
+    private int compress(BlockCodec codec, ByteBuffer chunk, int offset, int length, int headerSize) {
+        int maxLength = length - (IOUtils.RESERVED_HEADER_COMPRESSED - headerSize) - 1;
+        if (maxLength <= 0) return -1;
+        if (compressed == null || compressed.length < 2 * length) compressed = new byte[2 * length];
+        byte[] input;
+        int inputOffset;
+        if (chunk.hasArray()) {
+            input = chunk.array();
+            inputOffset = chunk.arrayOffset() + offset;
+        } else {
+            chunk.position(offset);
+            chunk.get(compressed, length, length);
+            input = compressed;
+            inputOffset = length;
         }
-        writeRawShort(length);
-        writeRawInteger(hash);
-        writeRawByte(VERSION);
-        write(buffer, 0, totalLength);
+        return codec.compress(input, inputOffset, length, compressed, 0, maxLength);
     }
 
-    private void require(int required) throws IOException {
-        if (IOUtils.CHUNK_SIZE - position < required) {
+    private BlockFormat getFormat() {
+        if (format == null) format = new BlockFormat(getVersion(), checksum, codec, compressionThreshold);
+        return format;
+    }
+
+    private byte getVersion() {
+        return blockSize > IOUtils.MAX_SMALL_BLOCK_SIZE ? IOUtils.VERSION_LARGE : IOUtils.VERSION;
+    }
+
+    private ByteBuffer require(int required) throws IOException {
+        ByteBuffer chunk = getChunk();
+        if (chunk.remaining() < required) {
             flush();
+            chunk = getChunk();
         }
+        return chunk;
     }
 
     private void writeRawByte(byte value) throws IOException {
-        require(1);
-        buffer[position++] = value;
+        require(1).put(value);
     }
 
     private void writeRawShort(short value) throws IOException {
-        require(2);
-        buffer[position++] = (byte) (value >> 8);
-        buffer[position++] = (byte) (value >> 0);
+        require(2).putShort(value);
     }
 
     private void writeRawInteger(int value) throws IOException {
-        require(4);
-        buffer[position++] = (byte) (value >>> 24);
-        buffer[position++] = (byte) (value >> 16);
-        buffer[position++] = (byte) (value >>> 8);
-        buffer[position++] = (byte) (value >>> 0);
+        require(4).putInt(value);
     }
 
     private void writeRawLong(long value) throws IOException {
-        require(8);
-        buffer[position++] = (byte) (value >>> 56);
-        buffer[position++] = (byte) (value >>> 48);
-        buffer[position++] = (byte) (value >>> 40);
-        buffer[position++] = (byte) (value >>> 32);
-        buffer[position++] = (byte) (value >>> 24);
-        buffer[position++] = (byte) (value >> 16);
-        buffer[position++] = (byte) (value >>> 8);
-        buffer[position++] = (byte) (value >>> 0);
+        require(8).putLong(value);
     }
 
     private void writeRawBytes(byte[] data) throws IOException {
-        require(data.length);
-        for (byte _byte : data) {
-            buffer[position++] = _byte;
+        writeRawBytes(data, 0, data.length);
+    }
+
+    /**
+     * Writes a String encoded with UTF-8, directly into the chunk. Like a sequence of bytes, a String which fits in
+     * a block is never split, larger Strings span as many blocks as needed.
+     */
+    private void writeRawString(String value, int length) throws IOException {
+        ByteBuffer chunk = getChunk();
+        if (length > chunk.remaining() && length <= blockSize - IOUtils.getHeaderSize(getVersion())) {
+            chunk = require(length);
+        }
+        if (length <= chunk.remaining() && chunk.hasArray()) {
+            int end = IOUtils.encodeUtf8(value, chunk.array(), chunk.arrayOffset() + chunk.position());
+            chunk.position(end - chunk.arrayOffset());
+            return;
+        }
+        int count = value.length();
+        for (int index = 0; index < count; index++) {
+            char c = value.charAt(index);
+            if (c < 0x80) {
+                require(1).put((byte) c);
+            } else {
+                index = IOUtils.encodeUtf8(value, index, require(4));
+            }
+        }
+    }
+
+    /**
+     * Writes a sequence of bytes. A sequence which fits in a block is never split, larger sequences span as many
+     * blocks as needed.
+     */
+    private void writeRawBytes(byte[] data, int offset, int length) throws IOException {
+        ByteBuffer chunk = getChunk();
+        if (length <= chunk.remaining() || length <= blockSize - IOUtils.getHeaderSize(getVersion())) {
+            require(length).put(data, offset, length);
+            return;
+        }
+        while (length > 0) {
+            chunk = require(1);
+            int count = Math.min(chunk.remaining(), length);
+            chunk.put(data, offset, count);
+            offset += count;
+            length -= count;
         }
     }
 
     @Override
     public String toString() {
-        return new StringJoiner(", ", AbstractEncoder.class.getSimpleName() + "[", "]").add("position=" + position).toString();
+        return new StringJoiner(", ", AbstractEncoder.class.getSimpleName() + "[", "]").add("position=" + (chunk != null ? chunk.position() - blockStart : 0)).toString();
+    }
+
+    /**
+     * Holds the settings used to seal a block, captured when the block is completed.
+     * <p>
+     * The format is immutable, a new instance is created when a setting changes.
+     */
+    static final class BlockFormat {
+
+        private final byte version;
+        private final BlockChecksum checksum;
+        private final BlockCodec codec;
+        private final int compressionThreshold;
+
+        private BlockFormat(byte version, BlockChecksum checksum, BlockCodec codec, int compressionThreshold) {
+            this.version = version;
+            this.checksum = checksum;
+            this.codec = codec;
+            this.compressionThreshold = compressionThreshold;
+        }
     }
 }
@@ -0,0 +1,224 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package net.microfalx.binserde.io;
+
+import net.microfalx.binserde.utils.ArgumentUtils;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An encoder which seals and writes blocks on a dedicated writer thread.
+ * <p>
+ * Completed blocks are handed to the writer thread, which computes the checksum, compresses (if a codec is set) and
+ * writes each block to a channel, while the serializing thread continues with the next block. The encoder uses a
+ * bounded ring of chunks: when all chunks wait to be written, the serializing thread waits for the writer thread.
+ * <p>
+ * The writer thread is created with a {@link ThreadFactory}, by default a platform daemon thread; a factory for
+ * virtual threads can be used with runtimes which support them. A failure of the writer thread is reported by the
+ * next write or by {@link #close()}.
+ */
+public class AsyncEncoder extends AbstractEncoder {
+
+    /**
+     * The default number of chunks
+     */
+    public static final int DEFAULT_CAPACITY = 4;
+
+    private static final PendingBlock END = new PendingBlock(ByteBuffer.allocate(0), null);
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private final WritableByteChannel channel;
+    private final boolean direct;
+    private final int capacity;
+    private final BlockingQueue<ByteBuffer> free;
+    private final BlockingQueue<PendingBlock> pending;
+    private final Thread writer;
+    private int allocated;
+    private volatile Throwable failure;
+
+    public AsyncEncoder(OutputStream outputStream) {
+        this(Channels.newChannel(outputStream), false, DEFAULT_CAPACITY, AsyncEncoder::createThread);
+    }
+
+    public AsyncEncoder(WritableByteChannel channel) {
+        this(channel, true, DEFAULT_CAPACITY, AsyncEncoder::createThread);
+    }
+
+    /**
+     * Creates an encoder which writes to a channel.
+     *
+     * @param channel       the channel
+     * @param capacity      the number of chunks, at least 2
+     * @param threadFactory the factory which creates the writer thread
+     */
+    public AsyncEncoder(WritableByteChannel channel, int capacity, ThreadFactory threadFactory) {
+        this(channel, true, capacity, threadFactory);
+    }
+
+    private AsyncEncoder(WritableByteChannel channel, boolean direct, int capacity, ThreadFactory threadFactory) {
+        ArgumentUtils.requireNonNull(channel);
+        ArgumentUtils.requireNonNull(threadFactory);
+        if (capacity < 2) throw new IllegalArgumentException("Capacity must be at least 2");
+        this.channel = channel;
+        this.direct = direct;
+        this.capacity = capacity;
+        this.free = new ArrayBlockingQueue<>(capacity);
+        this.pending = new ArrayBlockingQueue<>(capacity + 1);
+        this.writer = threadFactory.newThread(this::run);
+        this.writer.start();
+    }
+
+    /**
+     * Returns the number of chunks used by the encoder.
+     *
+     * @return a positive integer
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    ByteBuffer nextChunk() throws IOException {
+        checkFailure();
+        ByteBuffer chunk = free.poll();
+        if (chunk == null) {
+            if (allocated < capacity) {
+                allocated++;
+                chunk = direct ? ByteBuffer.allocateDirect(getBlockSize()) : ByteBuffer.allocate(getBlockSize());
+            } else {
+                try {
+                    chunk = free.take();
+                } catch (InterruptedException e) {
+                    throw interrupted(e);
+                }
+                checkFailure();
+            }
+        }
+        chunk.clear();
+        return chunk;
+    }
+
+    @Override
+    void complete(ByteBuffer block, BlockFormat format) throws IOException {
+        checkFailure();
+        enqueue(new PendingBlock(block, format));
+    }
+
+    @Override
+    void write(ByteBuffer block) throws IOException {
+        while (block.hasRemaining()) {
+            channel.write(block);
+        }
+    }
+
+    /**
+     * Writes the last block, waits for the writer thread to write all the blocks and closes the channel.
+     *
+     * @throws IOException if an I/O error occurs, in this call or in the writer thread
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (failure == null) flush();
+        } finally {
+            try {
+                enqueue(END);
+                writer.join();
+            } catch (InterruptedException e) {
+                throw interrupted(e);
+            } finally {
+                channel.close();
+            }
+        }
+        checkFailure();
+    }
+
+    private void run() {
+        try {
+            PendingBlock block;
+            while ((block = pending.take()) != END) {
+                if (failure == null) {
+                    try {
+                        seal(block.block, block.format);
+                        write(block.block);
+                    } catch (Throwable e) {
+                        failure = e;
+                    }
+                }
+                free.put(block.block);
+            }
+        } catch (InterruptedException e) {
+            failure = e;
+            // wakes up the serializing thread, if it waits for a chunk
+            free.offer(END.block);
+        }
+    }
+
+    private void enqueue(PendingBlock block) throws IOException {
+        try {
+            pending.put(block);
+        } catch (InterruptedException e) {
+            throw interrupted(e);
+        }
+    }
+
+    private void checkFailure() throws IOException {
+        Throwable failure = this.failure;
+        if (failure == null) return;
+        if (failure instanceof InterruptedException) throw interrupted((InterruptedException) failure);
+        throw new IOException("Failed to write block", failure);
+    }
+
+    private static IOException interrupted(InterruptedException e) {
+        Thread.currentThread().interrupt();
+        InterruptedIOException exception = new InterruptedIOException("Interrupted while waiting for the writer thread");
+        exception.initCause(e);
+        return exception;
+    }
+
+    private static Thread createThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "binserde-writer-" + THREAD_COUNT.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * A block waiting to be sealed and written, with the format captured by the serializing thread.
+     */
+    private static final class PendingBlock {
+
+        private final ByteBuffer block;
+        private final BlockFormat format;
+
+        private PendingBlock(ByteBuffer block, BlockFormat format) {
+            this.block = block;
+            this.format = format;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package net.microfalx.binserde.io;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Calculates the checksum stored in the header of each block.
+ * <p>
+ * The identifier of the checksum is stored with the block, so a decoder verifies each block with the algorithm used
+ * by the encoder. Built-in checksums are available in {@link BlockChecksums}; custom checksums, with an identifier
+ * between {@link BlockChecksums#MIN_CUSTOM_ID} and {@link BlockChecksums#MAX_ID}, are discovered with
+ * {@link java.util.ServiceLoader} or registered with {@link BlockChecksums#register(BlockChecksum)}.
+ */
+public interface BlockChecksum {
+
+    /**
+     * Returns the identifier of the checksum, stored in the block header.
+     *
+     * @return an identifier between 0 and {@link BlockChecksums#MAX_ID}
+     */
+    int getId();
+
+    /**
+     * Returns the name of the checksum.
+     *
+     * @return a non-empty String
+     */
+    String getName();
+
+    /**
+     * Calculates the checksum of a region of a buffer.
+     * <p>
+     * The position and limit of the buffer must not be changed.
+     *
+     * @param buffer the buffer, heap or direct
+     * @param offset the index of the first byte
+     * @param length the number of bytes
+     * @return the checksum
+     */
+    int calculate(ByteBuffer buffer, int offset, int length);
+}
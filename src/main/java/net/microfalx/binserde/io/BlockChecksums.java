@@ -0,0 +1,257 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package net.microfalx.binserde.io;
+
+import net.microfalx.binserde.utils.ArgumentUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ServiceLoader;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Holds the checksums available to encoders and decoders.
+ */
+public final class BlockChecksums {
+
+    /**
+     * The largest checksum identifier, the identifier is stored in 4 bits
+     */
+    public static final int MAX_ID = 15;
+
+    /**
+     * The first identifier available to custom checksums
+     */
+    public static final int MIN_CUSTOM_ID = 8;
+
+    /**
+     * The checksum used by the first versions of the library, a polynomial hash ({@code 31 * h + b}).
+     */
+    public static final BlockChecksum LEGACY = new Legacy();
+
+    /**
+     * CRC-32C, calculated with {@link java.util.zip.CRC32C} which is accelerated by the JVM on most platforms.
+     */
+    public static final BlockChecksum CRC32C = new Crc32c();
+
+    /**
+     * A 64-bit hash (the XXH64 algorithm), folded to 32 bits.
+     */
+    public static final BlockChecksum XXHASH = new XxHash();
+
+    /**
+     * No checksum, for transports which are already trusted (in memory or with their own integrity checks).
+     */
+    public static final BlockChecksum NONE = new None();
+
+    private static final AtomicReferenceArray<BlockChecksum> checksums = new AtomicReferenceArray<>(MAX_ID + 1);
+    private static volatile boolean checksumsLoaded;
+
+    static {
+        checksums.set(LEGACY.getId(), LEGACY);
+        checksums.set(CRC32C.getId(), CRC32C);
+        checksums.set(XXHASH.getId(), XXHASH);
+        checksums.set(NONE.getId(), NONE);
+    }
+
+    private BlockChecksums() {
+    }
+
+    /**
+     * Returns the checksum with a given identifier.
+     *
+     * @param id the identifier
+     * @return the checksum, {@code null} if there is no checksum with such identifier
+     */
+    public static BlockChecksum find(int id) {
+        if (id < 0 || id > MAX_ID) return null;
+        BlockChecksum checksum = checksums.get(id);
+        if (checksum == null && !checksumsLoaded) {
+            loadChecksums();
+            checksum = checksums.get(id);
+        }
+        return checksum;
+    }
+
+    /**
+     * Registers a custom checksum, in addition to the checksums discovered with {@link ServiceLoader}.
+     *
+     * @param checksum the checksum
+     */
+    public static void register(BlockChecksum checksum) {
+        ArgumentUtils.requireNonNull(checksum);
+        int id = checksum.getId();
+        if (id < MIN_CUSTOM_ID || id > MAX_ID) {
+            throw new IllegalArgumentException("Checksum identifier must be between " + MIN_CUSTOM_ID + " and " + MAX_ID);
+        }
+        if (!checksums.compareAndSet(id, null, checksum) && checksums.get(id) != checksum) {
+            throw new IllegalArgumentException("Failed to register checksum " + checksum.getName() + " with identifier "
+                    + id + ", another checksum (" + checksums.get(id).getName() + ") is already registered");
+        }
+    }
+
+    private static synchronized void loadChecksums() {
+        if (checksumsLoaded) return;
+        for (BlockChecksum checksum : ServiceLoader.load(BlockChecksum.class)) {
+            int id = checksum.getId();
+            if (id >= MIN_CUSTOM_ID && id <= MAX_ID) checksums.compareAndSet(id, null, checksum);
+        }
+        checksumsLoaded = true;
+    }
+
+    private static final class Legacy implements BlockChecksum {
+
+        @Override
+        public int getId() {
+            return 0;
+        }
+
+        @Override
+        public String getName() {
+            return "legacy";
+        }
+
+        @Override
+        public int calculate(ByteBuffer buffer, int offset, int length) {
+            return IOUtils.hashCode(buffer, offset, length);
+        }
+    }
+
+    private static final class Crc32c implements BlockChecksum {
+
+        @Override
+        public int getId() {
+            return 1;
+        }
+
+        @Override
+        public String getName() {
+            return "crc32c";
+        }
+
+        @Override
+        public int calculate(ByteBuffer buffer, int offset, int length) {
+            java.util.zip.CRC32C crc = new java.util.zip.CRC32C();
+            ByteBuffer region = buffer.duplicate();
+            region.limit(offset + length).position(offset);
+            crc.update(region);
+            return (int) crc.getValue();
+        }
+    }
+
+    private static final class XxHash implements BlockChecksum {
+
+        private static final long PRIME1 = 0x9E3779B185EBCA87L;
+        private static final long PRIME2 = 0xC2B2AE3D27D4EB4FL;
+        private static final long PRIME3 = 0x165667B19E3779F9L;
+        private static final long PRIME4 = 0x85EBCA77C2B2AE63L;
+        private static final long PRIME5 = 0x27D4EB2F165667C5L;
+
+        @Override
+        public int getId() {
+            return 2;
+        }
+
+        @Override
+        public String getName() {
+            return "xxhash";
+        }
+
+        @Override
+        public int calculate(ByteBuffer buffer, int offset, int length) {
+            ByteBuffer data = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            int index = offset;
+            int end = offset + length;
+            long hash;
+            if (length >= 32) {
+                long v1 = PRIME1 + PRIME2;
+                long v2 = PRIME2;
+                long v3 = 0;
+                long v4 = -PRIME1;
+                int limit = end - 32;
+                do {
+                    v1 = round(v1, data.getLong(index));
+                    v2 = round(v2, data.getLong(index + 8));
+                    v3 = round(v3, data.getLong(index + 16));
+                    v4 = round(v4, data.getLong(index + 24));
+                    index += 32;
+                } while (index <= limit);
+                hash = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+                hash = merge(hash, v1);
+                hash = merge(hash, v2);
+                hash = merge(hash, v3);
+                hash = merge(hash, v4);
+            } else {
+                hash = PRIME5;
+            }
+            hash += length;
+            while (index + 8 <= end) {
+                hash ^= round(0, data.getLong(index));
+                hash = Long.rotateLeft(hash, 27) * PRIME1 + PRIME4;
+                index += 8;
+            }
+            if (index + 4 <= end) {
+                hash ^= (data.getInt(index) & 0xFFFFFFFFL) * PRIME1;
+                hash = Long.rotateLeft(hash, 23) * PRIME2 + PRIME3;
+                index += 4;
+            }
+            while (index < end) {
+                hash ^= (data.get(index) & 0xFF) * PRIME5;
+                hash = Long.rotateLeft(hash, 11) * PRIME1;
+                index++;
+            }
+            hash ^= hash >>> 33;
+            hash *= PRIME2;
+            hash ^= hash >>> 29;
+            hash *= PRIME3;
+            hash ^= hash >>> 32;
+            return (int) (hash ^ (hash >>> 32));
+        }
+
+        private static long round(long accumulator, long input) {
+            accumulator += input * PRIME2;
+            accumulator = Long.rotateLeft(accumulator, 31);
+            return accumulator * PRIME1;
+        }
+
+        private static long merge(long hash, long value) {
+            hash ^= round(0, value);
+            return hash * PRIME1 + PRIME4;
+        }
+    }
+
+    private static final class None implements BlockChecksum {
+
+        @Override
+        public int getId() {
+            return 3;
+        }
+
+        @Override
+        public String getName() {
+            return "none";
+        }
+
+        @Override
+        public int calculate(ByteBuffer buffer, int offset, int length) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package net.microfalx.binserde.io;
+
+/**
+ * Compresses the data of a block.
+ * <p>
+ * A block is compressed after it is complete and the identifier of the codec is stored in the block header, so a
+ * decoder decompresses each block with the codec used by the encoder. Built-in codecs are available in
+ * {@link BlockCodecs}; custom codecs, with an identifier between {@link BlockCodecs#MIN_CUSTOM_ID} and
+ * {@link BlockCodecs#MAX_ID}, are discovered with {@link java.util.ServiceLoader} or registered with
+ * {@link BlockCodecs#register(BlockCodec)}.
+ * <p>
+ * Codecs are shared between threads and they should not allocate memory for each block.
+ */
+public interface BlockCodec {
+
+    /**
+     * Returns the identifier of the codec, stored in the block header.
+     *
+     * @return an identifier between 1 and {@link BlockCodecs#MAX_ID}
+     */
+    int getId();
+
+    /**
+     * Returns the name of the codec.
+     *
+     * @return a non-empty String
+     */
+    String getName();
+
+    /**
+     * Compresses a region of an array.
+     *
+     * @param input        the data to compress
+     * @param inputOffset  the index of the first byte to compress
+     * @param length       the number of bytes to compress
+     * @param output       the array which receives the compressed data
+     * @param outputOffset the index of the first compressed byte
+     * @param maxLength    the maximum number of compressed bytes
+     * @return the number of compressed bytes, -1 if the compressed data does not fit in {@code maxLength} bytes
+     */
+    int compress(byte[] input, int inputOffset, int length, byte[] output, int outputOffset, int maxLength);
+
+    /**
+     * Decompresses a region of an array.
+     *
+     * @param input          the compressed data
+     * @param inputOffset    the index of the first compressed byte
+     * @param length         the number of compressed bytes
+     * @param output         the array which receives the data
+     * @param outputOffset   the index of the first byte
+     * @param originalLength the number of bytes before compression
+     * @throws DecoderException if the compressed data is corrupted
+     */
+    void decompress(byte[] input, int inputOffset, int length, byte[] output, int outputOffset, int originalLength);
+}
@@ -0,0 +1,353 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package net.microfalx.binserde.io;
+
+import net.microfalx.binserde.utils.ArgumentUtils;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.ServiceLoader;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Holds the codecs available to encoders and decoders.
+ */
+public final class BlockCodecs {
+
+    /**
+     * The largest codec identifier
+     */
+    public static final int MAX_ID = 15;
+
+    /**
+     * The first identifier available to custom codecs
+     */
+    public static final int MIN_CUSTOM_ID = 8;
+
+    /**
+     * No compression, blocks are stored as they are.
+     */
+    public static final BlockCodec NONE = new None();
+
+    /**
+     * The DEFLATE algorithm, with {@link Deflater} and {@link Inflater}.
+     */
+    public static final BlockCodec DEFLATE = new Deflate();
+
+    /**
+     * A fast LZ77 codec, which uses the LZ4 block format.
+     */
+    public static final BlockCodec LZ = new Lz();
+
+    private static final AtomicReferenceArray<BlockCodec> codecs = new AtomicReferenceArray<>(MAX_ID + 1);
+    private static volatile boolean codecsLoaded;
+
+    static {
+        codecs.set(NONE.getId(), NONE);
+        codecs.set(DEFLATE.getId(), DEFLATE);
+        codecs.set(LZ.getId(), LZ);
+    }
+
+    private BlockCodecs() {
+    }
+
+    /**
+     * Returns the codec with a given identifier.
+     *
+     * @param id the identifier
+     * @return the codec, {@code null} if there is no codec with such identifier
+     */
+    public static BlockCodec find(int id) {
+        if (id < 0 || id > MAX_ID) return null;
+        BlockCodec codec = codecs.get(id);
+        if (codec == null && !codecsLoaded) {
+            loadCodecs();
+            codec = codecs.get(id);
+        }
+        return codec;
+    }
+
+    /**
+     * Registers a custom codec, in addition to the codecs discovered with {@link ServiceLoader}.
+     *
+     * @param codec the codec
+     */
+    public static void register(BlockCodec codec) {
+        ArgumentUtils.requireNonNull(codec);
+        int id = codec.getId();
+        if (id < MIN_CUSTOM_ID || id > MAX_ID) {
+            throw new IllegalArgumentException("Codec identifier must be between " + MIN_CUSTOM_ID + " and " + MAX_ID);
+        }
+        if (!codecs.compareAndSet(id, null, codec) && codecs.get(id) != codec) {
+            throw new IllegalArgumentException("Failed to register codec " + codec.getName() + " with identifier "
+                    + id + ", another codec (" + codecs.get(id).getName() + ") is already registered");
+        }
+    }
+
+    private static synchronized void loadCodecs() {
+        if (codecsLoaded) return;
+        for (BlockCodec codec : ServiceLoader.load(BlockCodec.class)) {
+            int id = codec.getId();
+            if (id >= MIN_CUSTOM_ID && id <= MAX_ID) codecs.compareAndSet(id, null, codec);
+        }
+        codecsLoaded = true;
+    }
+
+    private static final class None implements BlockCodec {
+
+        @Override
+        public int getId() {
+            return 0;
+        }
+
+        @Override
+        public String getName() {
+            return "none";
+        }
+
+        @Override
+        public int compress(byte[] input, int inputOffset, int length, byte[] output, int outputOffset, int maxLength) {
+            return -1;
+        }
+
+        @Override
+        public void decompress(byte[] input, int inputOffset, int length, byte[] output, int outputOffset, int originalLength) {
+            throw new DecoderException("Blocks are not compressed with codec " + getName());
+        }
+    }
+
+    private static final class Deflate implements BlockCodec {
+
+        private static final ThreadLocal<Deflater> deflaters = ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_SPEED, true));
+        private static final ThreadLocal<Inflater> inflaters = ThreadLocal.withInitial(() -> new Inflater(true));
+
+        @Override
+        public int getId() {
+            return 1;
+        }
+
+        @Override
+        public String getName() {
+            return "deflate";
+        }
+
+        @Override
+        public int compress(byte[] input, int inputOffset, int length, byte[] output, int outputOffset, int maxLength) {
+            Deflater deflater = deflaters.get();
+            deflater.reset();
+            deflater.setInput(input, inputOffset, length);
+            deflater.finish();
+            int compressed = 0;
+            while (!deflater.finished()) {
+                if (compressed == maxLength) return -1;
+                compressed += deflater.deflate(output, outputOffset + compressed, maxLength - compressed);
+            }
+            return compressed;
+        }
+
+        @Override
+        public void decompress(byte[] input, int inputOffset, int length, byte[] output, int outputOffset, int originalLength) {
+            Inflater inflater = inflaters.get();
+            inflater.reset();
+            inflater.setInput(input, inputOffset, length);
+            try {
+                int decompressed = 0;
+                while (decompressed < originalLength && !inflater.finished()) {
+                    int count = inflater.inflate(output, outputOffset + decompressed, originalLength - decompressed);
+                    if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                    decompressed += count;
+                }
+                if (decompressed != originalLength) throw new DecoderException("Corrupted data, invalid compressed block length");
+            } catch (DataFormatException e) {
+                throw new DecoderException("Corrupted data, invalid compressed block", e);
+            }
+        }
+    }
+
+    private static final class Lz implements BlockCodec {
+
+        private static final int MIN_MATCH = 4;
+        private static final int LAST_LITERALS = 5;
+        private static final int MATCH_FIND_LIMIT = 12;
+        private static final int MAX_DISTANCE = 0xFFFF;
+        private static final int HASH_LOG = 12;
+
+        private static final VarHandle INT = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+        private static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+        private static final ThreadLocal<int[]> tables = ThreadLocal.withInitial(() -> new int[1 << HASH_LOG]);
+
+        @Override
+        public int getId() {
+            return 2;
+        }
+
+        @Override
+        public String getName() {
+            return "lz";
+        }
+
+        @Override
+        public int compress(byte[] input, int inputOffset, int length, byte[] output, int outputOffset, int maxLength) {
+            int inputEnd = inputOffset + length;
+            int matchLimit = inputEnd - LAST_LITERALS;
+            int findLimit = inputEnd - MATCH_FIND_LIMIT;
+            int outputEnd = outputOffset + maxLength;
+            int anchor = inputOffset;
+            int op = outputOffset;
+            if (length > MATCH_FIND_LIMIT) {
+                int[] table = tables.get();
+                Arrays.fill(table, -1);
+                int ip = inputOffset;
+                while (ip < findLimit) {
+                    int hash = hash(input, ip);
+                    int ref = table[hash];
+                    table[hash] = ip;
+                    if (ref < 0 || ip - ref > MAX_DISTANCE || readInt(input, ref) != readInt(input, ip)) {
+                        ip++;
+                        continue;
+                    }
+                    while (ip > anchor && ref > inputOffset && input[ip - 1] == input[ref - 1]) {
+                        ip--;
+                        ref--;
+                    }
+                    int matchLength = MIN_MATCH;
+                    while (ip + matchLength + 8 <= matchLimit) {
+                        long diff = readLong(input, ip + matchLength) ^ readLong(input, ref + matchLength);
+                        if (diff != 0) {
+                            matchLength += Long.numberOfTrailingZeros(diff) >>> 3;
+                            break;
+                        }
+                        matchLength += 8;
+                    }
+                    while (ip + matchLength < matchLimit && input[ip + matchLength] == input[ref + matchLength]) {
+                        matchLength++;
+                    }
+                    op = writeSequence(input, anchor, ip - anchor, ip - ref, matchLength, output, op, outputEnd);
+                    if (op < 0) return -1;
+                    ip += matchLength;
+                    anchor = ip;
+                }
+            }
+            op = writeSequence(input, anchor, inputEnd - anchor, 0, 0, output, op, outputEnd);
+            return op < 0 ? -1 : op - outputOffset;
+        }
+
+        @Override
+        public void decompress(byte[] input, int inputOffset, int length, byte[] output, int outputOffset, int originalLength) {
+            int ip = inputOffset;
+            int inputEnd = inputOffset + length;
+            int op = outputOffset;
+            int outputEnd = outputOffset + originalLength;
+            try {
+                while (ip < inputEnd) {
+                    int token = input[ip++] & 0xFF;
+                    int literals = token >>> 4;
+                    if (literals == 15) {
+                        int value;
+                        do {
+                            value = input[ip++] & 0xFF;
+                            literals += value;
+                        } while (value == 255);
+                    }
+                    if (op + literals > outputEnd || ip + literals > inputEnd) {
+                        throw new DecoderException("Corrupted data, invalid compressed block");
+                    }
+                    System.arraycopy(input, ip, output, op, literals);
+                    ip += literals;
+                    op += literals;
+                    if (ip == inputEnd) break;
+                    int distance = (input[ip] & 0xFF) | ((input[ip + 1] & 0xFF) << 8);
+                    ip += 2;
+                    int matchLength = token & 0x0F;
+                    if (matchLength == 15) {
+                        int value;
+                        do {
+                            value = input[ip++] & 0xFF;
+                            matchLength += value;
+                        } while (value == 255);
+                    }
+                    matchLength += MIN_MATCH;
+                    int ref = op - distance;
+                    if (distance == 0 || ref < outputOffset || op + matchLength > outputEnd) {
+                        throw new DecoderException("Corrupted data, invalid compressed block");
+                    }
+                    if (distance >= matchLength) {
+                        System.arraycopy(output, ref, output, op, matchLength);
+                        op += matchLength;
+                    } else {
+                        for (int index = 0; index < matchLength; index++) {
+                            output[op++] = output[ref++];
+                        }
+                    }
+                }
+            } catch (IndexOutOfBoundsException e) {
+                throw new DecoderException("Corrupted data, invalid compressed block", e);
+            }
+            if (op != outputEnd) throw new DecoderException("Corrupted data, invalid compressed block length");
+        }
+
+        private static int writeSequence(byte[] input, int literalStart, int literals, int distance, int matchLength,
+                                         byte[] output, int op, int outputEnd) {
+            int required = 1 + literals + literals / 255 + 1 + (matchLength > 0 ? 2 + matchLength / 255 + 1 : 0);
+            if (op + required > outputEnd) return -1;
+            int tokenIndex = op++;
+            int token = Math.min(literals, 15) << 4;
+            if (literals >= 15) op = writeLength(literals - 15, output, op);
+            System.arraycopy(input, literalStart, output, op, literals);
+            op += literals;
+            if (matchLength > 0) {
+                output[op++] = (byte) distance;
+                output[op++] = (byte) (distance >>> 8);
+                int length = matchLength - MIN_MATCH;
+                token |= Math.min(length, 15);
+                if (length >= 15) op = writeLength(length - 15, output, op);
+            }
+            output[tokenIndex] = (byte) token;
+            return op;
+        }
+
+        private static int writeLength(int length, byte[] output, int op) {
+            while (length >= 255) {
+                output[op++] = (byte) 255;
+                length -= 255;
+            }
+            output[op++] = (byte) length;
+            return op;
+        }
+
+        private static int readInt(byte[] input, int index) {
+            return (int) INT.get(input, index);
+        }
+
+        private static long readLong(byte[] input, int index) {
+            return (long) LONG.get(input, index);
+        }
+
+        private static int hash(byte[] input, int index) {
+            return (readInt(input, index) * -1640531535) >>> (32 - HASH_LOG);
+        }
+    }
+}
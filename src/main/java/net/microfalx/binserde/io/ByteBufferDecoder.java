@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package net.microfalx.binserde.io;
+
+import net.microfalx.binserde.deserializer.DeserializerException;
+import net.microfalx.binserde.utils.ArgumentUtils;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A decoder which reads blocks directly from a buffer supplied by the caller, heap or direct.
+ * <p>
+ * Values are decoded in place, there is no intermediate copy. The position of the buffer is advanced after each
+ * block is read.
+ */
+public class ByteBufferDecoder extends AbstractDecoder {
+
+    private final ByteBuffer buffer;
+
+    public ByteBufferDecoder(ByteBuffer buffer) {
+        ArgumentUtils.requireNonNull(buffer);
+        this.buffer = buffer;
+    }
+
+    /**
+     * Returns the buffer which holds the blocks.
+     *
+     * @return a non-null instance
+     */
+    public ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    @Override
+    ByteBuffer readBlock() {
+        // a slice is always big endian, the header is read independently of the byte order of the caller buffer
+        ByteBuffer block = buffer.slice();
+        if (block.remaining() < IOUtils.RESERVED_HEADER) throw new DeserializerException("Corrupted data, invalid block header");
+        if (block.remaining() < IOUtils.getHeaderSize(IOUtils.getVersion(block.get(10)))) {
+            throw new DeserializerException("Corrupted data, invalid block header");
+        }
+        int length = IOUtils.getBlockSize(block, 0);
+        block.limit(Math.min(block.capacity(), length));
+        buffer.position(buffer.position() + block.limit());
+        return block;
+    }
+
+    @Override
+    public void close() {
+        // nothing to release, the buffer belongs to the caller
+    }
+}
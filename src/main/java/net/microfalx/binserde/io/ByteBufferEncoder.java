@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package net.microfalx.binserde.io;
+
+import net.microfalx.binserde.utils.ArgumentUtils;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * An encoder which writes blocks directly in a buffer supplied by the caller, heap or direct.
+ * <p>
+ * Values are encoded in place, there is no intermediate copy. The position of the buffer is advanced after each
+ * complete block, so the bytes between the initial position and the current position can be handed to a channel
+ * once the encoder is {@link #close() closed}.
+ */
+public class ByteBufferEncoder extends AbstractEncoder {
+
+    private final ByteBuffer buffer;
+
+    public ByteBufferEncoder(ByteBuffer buffer) {
+        ArgumentUtils.requireNonNull(buffer);
+        this.buffer = buffer;
+    }
+
+    /**
+     * Returns the buffer which receives the blocks.
+     *
+     * @return a non-null instance
+     */
+    public ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    @Override
+    ByteBuffer nextChunk() {
+        if (buffer.remaining() < IOUtils.RESERVED_HEADER_LARGE) throw new BufferOverflowException();
+        return buffer.slice();
+    }
+
+    @Override
+    void write(ByteBuffer block) {
+        buffer.position(buffer.position() + block.remaining());
+    }
+
+    /**
+     * Writes the last block in the buffer. The buffer is not released and it can be used by the caller.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+}
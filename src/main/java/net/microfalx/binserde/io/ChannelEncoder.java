@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package net.microfalx.binserde.io;
+
+import net.microfalx.binserde.utils.ArgumentUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.GatheringByteChannel;
+import java.util.Arrays;
+
+/**
+ * An encoder which writes blocks to a channel.
+ * <p>
+ * Completed blocks are accumulated (in direct buffers) until their size reaches a threshold and then written to the
+ * channel with a single gathering write. When the channel is a {@link FileChannel}, the content can be forced to the
+ * storage device, see {@link ForcePolicy}.
+ */
+public class ChannelEncoder extends AbstractEncoder {
+
+    static final int DEFAULT_THRESHOLD = 16 * IOUtils.CHUNK_SIZE;
+
+    private final GatheringByteChannel channel;
+    private int threshold = DEFAULT_THRESHOLD;
+    private ForcePolicy forcePolicy = ForcePolicy.NEVER;
+
+    private ByteBuffer[] chunks = new ByteBuffer[DEFAULT_THRESHOLD / IOUtils.CHUNK_SIZE];
+    private int pendingCount;
+    private long pendingSize;
+
+    public ChannelEncoder(GatheringByteChannel channel) {
+        ArgumentUtils.requireNonNull(channel);
+        this.channel = channel;
+    }
+
+    /**
+     * Returns the number of bytes accumulated before the blocks are written to the channel.
+     *
+     * @return a positive integer
+     */
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Changes the number of bytes accumulated before the blocks are written to the channel.
+     * <p>
+     * A threshold smaller than a block writes every block as soon as it is complete.
+     *
+     * @param threshold the threshold, in bytes
+     */
+    public void setThreshold(int threshold) {
+        if (threshold <= 0) throw new IllegalArgumentException("Threshold must be positive");
+        this.threshold = threshold;
+    }
+
+    /**
+     * Returns when the content of the channel is forced to the storage device.
+     *
+     * @return a non-null instance
+     */
+    public ForcePolicy getForcePolicy() {
+        return forcePolicy;
+    }
+
+    /**
+     * Changes when the content of the channel is forced to the storage device.
+     *
+     * @param forcePolicy the policy
+     */
+    public void setForcePolicy(ForcePolicy forcePolicy) {
+        ArgumentUtils.requireNonNull(forcePolicy);
+        this.forcePolicy = forcePolicy;
+    }
+
+    @Override
+    ByteBuffer nextChunk() {
+        if (pendingCount == chunks.length) chunks = Arrays.copyOf(chunks, chunks.length * 2);
+        ByteBuffer chunk = chunks[pendingCount];
+        if (chunk == null || chunk.capacity() < getBlockSize()) {
+            chunk = ByteBuffer.allocateDirect(getBlockSize());
+            chunks[pendingCount] = chunk;
+        }
+        chunk.clear();
+        return chunk;
+    }
+
+    @Override
+    void write(ByteBuffer block) throws IOException {
+        pendingCount++;
+        pendingSize += block.remaining();
+        if (pendingSize >= threshold) writePending();
+    }
+
+    /**
+     * Writes the last block and all the accumulated blocks to the channel, then closes the channel.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+            writePending();
+            if (forcePolicy == ForcePolicy.ON_CLOSE) force();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void writePending() throws IOException {
+        if (pendingCount == 0) return;
+        while (pendingSize > 0) {
+            pendingSize -= channel.write(chunks, 0, pendingCount);
+        }
+        pendingCount = 0;
+        if (forcePolicy == ForcePolicy.ON_WRITE) force();
+    }
+
+    private void force() throws IOException {
+        if (channel instanceof FileChannel) ((FileChannel) channel).force(false);
+    }
+
+    /**
+     * Controls when the content of a {@link FileChannel} is forced to the storage device.
+     */
+    public enum ForcePolicy {
+
+        /**
+         * The content is never forced, the operating system decides when it reaches the storage device.
+         */
+        NEVER,
+
+        /**
+         * The content is forced once, when the encoder is closed.
+         */
+        ON_CLOSE,
+
+        /**
+         * The content is forced after every write to the channel.
+         */
+        ON_WRITE
+    }
+}
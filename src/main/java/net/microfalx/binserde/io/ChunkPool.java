@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package net.microfalx.binserde.io;
+
+import net.microfalx.binserde.utils.ArgumentUtils;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded pool of chunks, the buffers used by encoders and decoders to hold a block.
+ * <p>
+ * The pool is made out of slots which are shared by all threads; each thread starts looking for a free chunk
+ * (or a free slot, when a chunk is released) at a different slot, to reduce contention. When the pool is empty
+ * a new chunk is allocated and when the pool is full a released chunk is left to the garbage collector.
+ * <p>
+ * The size of the pool can be changed with the system property {@code binserde.pool.size}.
+ */
+public final class ChunkPool {
+
+    private static final ChunkPool instance = new ChunkPool(Integer.getInteger("binserde.pool.size",
+            4 * Runtime.getRuntime().availableProcessors()));
+
+    private final AtomicReferenceArray<byte[]> chunks;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    /**
+     * Returns the pool shared by all encoders and decoders.
+     *
+     * @return a non-null instance
+     */
+    public static ChunkPool getInstance() {
+        return instance;
+    }
+
+    ChunkPool(int size) {
+        if (size < 0) throw new IllegalArgumentException("Pool size cannot be negative");
+        this.chunks = new AtomicReferenceArray<>(size);
+    }
+
+    /**
+     * Returns the maximum number of chunks held by the pool.
+     *
+     * @return a positive integer or zero, if the pool is disabled
+     */
+    public int getSize() {
+        return chunks.length();
+    }
+
+    /**
+     * Returns the number of chunks taken from the pool.
+     *
+     * @return a positive integer
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * Returns the number of chunks allocated because the pool was empty.
+     *
+     * @return a positive integer
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * Takes a chunk from the pool or allocates a new one, if the pool is empty.
+     *
+     * @return a non-null instance, with a size of {@link IOUtils#CHUNK_SIZE}
+     */
+    byte[] acquire() {
+        int size = chunks.length();
+        int start = stripe(size);
+        for (int index = 0; index < size; index++) {
+            int slot = (start + index) % size;
+            if (chunks.get(slot) == null) continue;
+            byte[] chunk = chunks.getAndSet(slot, null);
+            if (chunk != null) {
+                hitCount.increment();
+                return chunk;
+            }
+        }
+        missCount.increment();
+        return new byte[IOUtils.CHUNK_SIZE];
+    }
+
+    /**
+     * Returns a chunk to the pool.
+     *
+     * @param chunk the chunk
+     */
+    void release(byte[] chunk) {
+        ArgumentUtils.requireNonNull(chunk);
+        if (chunk.length != IOUtils.CHUNK_SIZE) throw new IllegalArgumentException("Invalid chunk size " + chunk.length);
+        int size = chunks.length();
+        int start = stripe(size);
+        for (int index = 0; index < size; index++) {
+            int slot = (start + index) % size;
+            if (chunks.get(slot) == null && chunks.compareAndSet(slot, null, chunk)) return;
+        }
+    }
+
+    private static int stripe(int size) {
+        return size == 0 ? 0 : (int) (Thread.currentThread().getId() % size);
+    }
+
+    @Override
+    public String toString() {
+        return "ChunkPool{" + "size=" + getSize() + ", hitCount=" + getHitCount() + ", missCount=" + getMissCount() + '}';
+    }
+}
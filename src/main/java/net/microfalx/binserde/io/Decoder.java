@@ -22,6 +22,7 @@ package net.microfalx.binserde.io;
 import net.microfalx.binserde.metadata.ClassInfo;
 
 import java.io.IOException;
+import java.io.OutputStream;
 
 public interface Decoder extends AutoCloseable {
 
@@ -51,9 +52,32 @@ public interface Decoder extends AutoCloseable {
 
     String readString() throws IOException;
 
+    /**
+     * Reads a String which can be interned.
+     * <p>
+     * When interning is requested and the decoder has a {@link StringCache}, repeated values return the same instance.
+     *
+     * @param intern {@code true} to intern the String, {@code false} otherwise
+     * @return the String, can be null
+     * @throws IOException if an I/O error occurs
+     */
+    String readString(boolean intern) throws IOException;
+
     ClassInfo readClass() throws IOException;
 
     byte[] readBytes() throws IOException;
 
+    /**
+     * Reads a binary value and copies its content to a stream.
+     * <p>
+     * The content is copied in segments, so the memory used does not depend on the length of the value.
+     * The stream is not closed.
+     *
+     * @param value the stream which receives the content
+     * @return the number of bytes copied, -1 if the value is null
+     * @throws IOException if an I/O error occurs
+     */
+    long readBytes(OutputStream value) throws IOException;
+
     void close() throws IOException;
 }
@@ -22,6 +22,7 @@ package net.microfalx.binserde.io;
 import net.microfalx.binserde.metadata.ClassInfo;
 
 import java.io.IOException;
+import java.io.InputStream;
 
 public interface Encoder extends AutoCloseable {
 
@@ -53,6 +54,17 @@ public interface Encoder extends AutoCloseable {
 
     void writeBytes(byte[] value) throws IOException;
 
+    /**
+     * Writes the content of a stream, up to its end, as a binary value.
+     * <p>
+     * The length of the content does not need to be known in advance; the content is copied in segments, so
+     * the memory used does not depend on the length of the stream. The stream is not closed.
+     *
+     * @param value the stream, can be null
+     * @throws IOException if an I/O error occurs
+     */
+    void writeBytes(InputStream value) throws IOException;
+
     @Override
     void close() throws IOException;
 }
@@ -19,6 +19,9 @@
 
 package net.microfalx.binserde.io;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
 class IOUtils {
 
     /**
@@ -31,6 +34,42 @@ class IOUtils {
      */
     static final int RESERVED_HEADER = 11;
 
+    /**
+     * The size of a large block header: the block header followed by the lower 2 bytes of the block size
+     */
+    static final int RESERVED_HEADER_LARGE = 13;
+
+    /**
+     * The size of a compressed block header: the large block header followed by the codec identifier and the
+     * length of the block before compression
+     */
+    static final int RESERVED_HEADER_COMPRESSED = 18;
+
+    /**
+     * The version of blocks with a length stored in 2 bytes
+     */
+    static final byte VERSION = 1;
+
+    /**
+     * The version of large blocks, with a length stored in 4 bytes
+     */
+    static final byte VERSION_LARGE = 2;
+
+    /**
+     * The version of compressed blocks, with a length stored in 4 bytes
+     */
+    static final byte VERSION_COMPRESSED = 3;
+
+    /**
+     * The largest block supported by the encoders
+     */
+    static final int MAX_BLOCK_SIZE = 16 * 1024 * 1024;
+
+    /**
+     * The largest block which can be stored with {@link #VERSION}
+     */
+    static final int MAX_SMALL_BLOCK_SIZE = RESERVED_HEADER + Short.MAX_VALUE;
+
     /**
      * A header signature to make sure the block was serialized by the same library
      */
@@ -54,4 +93,219 @@ class IOUtils {
         }
         return result;
     }
+
+    /**
+     * The bit of the version byte which marks blocks with values stored in little-endian byte order
+     */
+    static final byte LITTLE_ENDIAN = 0x08;
+
+    /**
+     * Returns the block version out of the version byte of a block header.
+     * <p>
+     * The lower 3 bits hold the block version, the next bit marks little-endian blocks and the upper 4 bits hold the
+     * identifier of the {@link BlockChecksum}.
+     *
+     * @param flags the version byte
+     * @return the block version
+     */
+    static byte getVersion(byte flags) {
+        return (byte) (flags & 0x07);
+    }
+
+    /**
+     * Returns the byte order of the values stored in a block, out of the version byte of a block header.
+     * <p>
+     * The block header is always stored in big-endian byte order.
+     *
+     * @param flags the version byte
+     * @return the byte order
+     */
+    static ByteOrder getByteOrder(byte flags) {
+        return (flags & LITTLE_ENDIAN) != 0 ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+    }
+
+    /**
+     * Returns the checksum identifier out of the version byte of a block header.
+     *
+     * @param flags the version byte
+     * @return the checksum identifier
+     */
+    static int getChecksumId(byte flags) {
+        return (flags >> 4) & 0x0F;
+    }
+
+    /**
+     * Returns the size of a block header for a given version.
+     *
+     * @param version the block version
+     * @return the number of bytes
+     */
+    static int getHeaderSize(byte version) {
+        switch (version) {
+            case VERSION_LARGE:
+                return RESERVED_HEADER_LARGE;
+            case VERSION_COMPRESSED:
+                return RESERVED_HEADER_COMPRESSED;
+            default:
+                return RESERVED_HEADER;
+        }
+    }
+
+    /**
+     * Returns the size of a block, including the header.
+     * <p>
+     * The buffer must hold the first {@link #RESERVED_HEADER} bytes of the block and, for large and compressed
+     * blocks, {@link #RESERVED_HEADER_LARGE} bytes.
+     *
+     * @param header the buffer holding the block header
+     * @param offset the index of the block
+     * @return the number of bytes
+     */
+    static int getBlockSize(ByteBuffer header, int offset) {
+        int length = header.getShort(offset + 4) & 0xFFFF;
+        byte version = getVersion(header.get(offset + 10));
+        if (version == VERSION_LARGE || version == VERSION_COMPRESSED) {
+            return getHeaderSize(version) + ((length << 16) | (header.getShort(offset + RESERVED_HEADER) & 0xFFFF));
+        } else {
+            return RESERVED_HEADER + length;
+        }
+    }
+
+    /**
+     * Returns a hash code based on the contents of a buffer, the same as {@link #hashCode(byte[], int, int)}.
+     * <p>
+     * The position and limit of the buffer are not changed.
+     *
+     * @param buffer the buffer whose hash value to compute
+     * @param offset the index of the first byte
+     * @param length the number of bytes to calculate the hash
+     * @return a content-based hash code
+     */
+    public static int hashCode(ByteBuffer buffer, int offset, int length) {
+        if (buffer == null) return 0;
+        if (buffer.hasArray()) return hashCode(buffer.array(), buffer.arrayOffset() + offset, length);
+
+        int result = 1;
+        int endIndex = offset + length;
+        for (int index = offset; index < endIndex; index++) {
+            result = 31 * result + buffer.get(index);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of bytes of a String encoded with UTF-8.
+     * <p>
+     * Unpaired surrogates count as one byte, they are encoded as '?', like {@link String#getBytes(java.nio.charset.Charset)}.
+     *
+     * @param value the String
+     * @return the number of bytes
+     */
+    static int getUtf8Length(String value) {
+        int count = value.length();
+        int length = count;
+        for (int index = 0; index < count; index++) {
+            char c = value.charAt(index);
+            if (c < 0x80) continue;
+            if (c < 0x800) {
+                length++;
+            } else if (Character.isHighSurrogate(c) && index + 1 < count && Character.isLowSurrogate(value.charAt(index + 1))) {
+                length += 2;
+                index++;
+            } else if (!Character.isSurrogate(c)) {
+                length += 2;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Encodes a String with UTF-8 into an array, which must have room for {@link #getUtf8Length(String)} bytes.
+     *
+     * @param value  the String
+     * @param buffer the array
+     * @param offset the index of the first byte
+     * @return the index after the last byte
+     */
+    static int encodeUtf8(String value, byte[] buffer, int offset) {
+        int count = value.length();
+        int index = 0;
+        for (; index < count; index++) {
+            char c = value.charAt(index);
+            if (c >= 0x80) break;
+            buffer[offset++] = (byte) c;
+        }
+        for (; index < count; index++) {
+            char c = value.charAt(index);
+            if (c < 0x80) {
+                buffer[offset++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[offset++] = (byte) (0xC0 | (c >> 6));
+                buffer[offset++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                int codePoint = getCodePoint(value, index);
+                if (codePoint < 0) {
+                    buffer[offset++] = '?';
+                } else {
+                    buffer[offset++] = (byte) (0xF0 | (codePoint >> 18));
+                    buffer[offset++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    buffer[offset++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    buffer[offset++] = (byte) (0x80 | (codePoint & 0x3F));
+                    index++;
+                }
+            } else {
+                buffer[offset++] = (byte) (0xE0 | (c >> 12));
+                buffer[offset++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[offset++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * Encodes one character (or a surrogate pair) of a String with UTF-8 into a buffer, which must have room for
+     * 4 bytes.
+     *
+     * @param value  the String
+     * @param index  the index of the character
+     * @param buffer the buffer
+     * @return the index of the last character encoded
+     */
+    static int encodeUtf8(String value, int index, ByteBuffer buffer) {
+        char c = value.charAt(index);
+        if (c < 0x80) {
+            buffer.put((byte) c);
+        } else if (c < 0x800) {
+            buffer.put((byte) (0xC0 | (c >> 6)));
+            buffer.put((byte) (0x80 | (c & 0x3F)));
+        } else if (Character.isSurrogate(c)) {
+            int codePoint = getCodePoint(value, index);
+            if (codePoint < 0) {
+                buffer.put((byte) '?');
+            } else {
+                buffer.put((byte) (0xF0 | (codePoint >> 18)));
+                buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+                index++;
+            }
+        } else {
+            buffer.put((byte) (0xE0 | (c >> 12)));
+            buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+            buffer.put((byte) (0x80 | (c & 0x3F)));
+        }
+        return index;
+    }
+
+    /**
+     * Returns the code point of a surrogate pair starting at a given index, -1 if the surrogate is unpaired.
+     */
+    private static int getCodePoint(String value, int index) {
+        char high = value.charAt(index);
+        if (Character.isHighSurrogate(high) && index + 1 < value.length()) {
+            char low = value.charAt(index + 1);
+            if (Character.isLowSurrogate(low)) return Character.toCodePoint(high, low);
+        }
+        return -1;
+    }
 }
@@ -19,27 +19,81 @@
 
 package net.microfalx.binserde.io;
 
+import net.microfalx.binserde.deserializer.DeserializerException;
 import net.microfalx.binserde.utils.ArgumentUtils;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
+/**
+ * A decoder which reads blocks from an input stream.
+ * <p>
+ * The chunk is taken from the {@link ChunkPool} and returned when the decoder is closed; it is replaced by a larger
+ * buffer when the stream holds large blocks. A decoder can be reused
+ * for another stream with {@link #reset(InputStream)}.
+ */
 public class InputStreamDecoder extends AbstractDecoder {
 
-    private final InputStream inputStream;
+    private InputStream inputStream;
+    private byte[] buffer;
 
     public InputStreamDecoder(InputStream inputStream) {
         ArgumentUtils.requireNonNull(inputStream);
         this.inputStream = inputStream;
     }
 
+    /**
+     * Prepares the decoder to read from another stream.
+     * <p>
+     * Any data not read yet from the previous stream is discarded.
+     *
+     * @param inputStream the input stream
+     */
+    public void reset(InputStream inputStream) {
+        ArgumentUtils.requireNonNull(inputStream);
+        resetBlock();
+        this.inputStream = inputStream;
+    }
+
     @Override
-    int read(byte[] buffer, int offset, int length) throws IOException {
-        return inputStream.read(buffer, offset, length);
+    ByteBuffer readBlock() throws IOException {
+        if (buffer == null) buffer = ChunkPool.getInstance().acquire();
+        int headerSize = read(0, IOUtils.RESERVED_HEADER);
+        if (headerSize != IOUtils.RESERVED_HEADER) throw new DeserializerException("Corrupted data, invalid block header");
+        int fullHeaderSize = IOUtils.getHeaderSize(IOUtils.getVersion(buffer[10]));
+        if (fullHeaderSize > IOUtils.RESERVED_HEADER) {
+            headerSize += read(IOUtils.RESERVED_HEADER, fullHeaderSize - IOUtils.RESERVED_HEADER);
+            if (headerSize != fullHeaderSize) throw new DeserializerException("Corrupted data, invalid block header");
+        }
+        int blockSize = IOUtils.getBlockSize(ByteBuffer.wrap(buffer), 0);
+        if (blockSize > IOUtils.MAX_BLOCK_SIZE) throw new DeserializerException("Corrupted data, invalid block length");
+        if (blockSize > buffer.length) buffer = Arrays.copyOf(buffer, blockSize);
+        int read = read(headerSize, blockSize - headerSize);
+        return ByteBuffer.wrap(buffer, 0, headerSize + read);
+    }
+
+    private int read(int offset, int length) throws IOException {
+        int total = 0;
+        while (total < length) {
+            int read = inputStream.read(buffer, offset + total, length - total);
+            if (read < 0) break;
+            total += read;
+        }
+        return total;
     }
 
     @Override
     public void close() throws IOException {
-        inputStream.close();
+        try {
+            inputStream.close();
+        } finally {
+            resetBlock();
+            if (buffer != null) {
+                if (buffer.length == IOUtils.CHUNK_SIZE) ChunkPool.getInstance().release(buffer);
+                buffer = null;
+            }
+        }
     }
 }
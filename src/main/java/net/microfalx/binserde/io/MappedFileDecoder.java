@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package net.microfalx.binserde.io;
+
+import net.microfalx.binserde.deserializer.DeserializerException;
+import net.microfalx.binserde.utils.ArgumentUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A decoder which reads blocks from a memory mapped file.
+ * <p>
+ * Block headers are parsed and values are decoded directly from the mapped region, there is no copy. The file is
+ * mapped in windows (1 GB by default), so files larger than 2 GB are supported; a block which crosses the end of a
+ * window is read from a new window which starts with the block.
+ */
+public class MappedFileDecoder extends AbstractDecoder {
+
+    static final long DEFAULT_WINDOW_SIZE = 1024 * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final long size;
+    private final long windowSize;
+
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long position;
+
+    public MappedFileDecoder(Path file) throws IOException {
+        this(file, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Creates a decoder which maps the file in windows of a given size.
+     *
+     * @param file       the file
+     * @param windowSize the size of a window, which must be able to hold at least one block
+     * @throws IOException if an I/O error occurs
+     */
+    public MappedFileDecoder(Path file, long windowSize) throws IOException {
+        ArgumentUtils.requireNonNull(file);
+        if (windowSize < IOUtils.CHUNK_SIZE || windowSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Window size must be between " + IOUtils.CHUNK_SIZE + " and " + Integer.MAX_VALUE);
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.windowSize = windowSize;
+    }
+
+    @Override
+    ByteBuffer readBlock() throws IOException {
+        if (size - position < IOUtils.RESERVED_HEADER) throw new DeserializerException("Corrupted data, invalid block header");
+        ByteBuffer window = map((int) Math.min(IOUtils.RESERVED_HEADER_COMPRESSED, size - position));
+        int offset = (int) (position - windowStart);
+        if (size - position < IOUtils.getHeaderSize(IOUtils.getVersion(window.get(offset + 10)))) {
+            throw new DeserializerException("Corrupted data, invalid block header");
+        }
+        int length = (int) Math.min(IOUtils.getBlockSize(window, offset), size - position);
+        window = map(length);
+        offset = (int) (position - windowStart);
+        ByteBuffer block = window.duplicate();
+        block.limit(offset + length).position(offset);
+        position += length;
+        return block;
+    }
+
+    private ByteBuffer map(int length) throws IOException {
+        if (window == null || position < windowStart || position + length > windowStart + window.capacity()) {
+            windowStart = position;
+            long mapSize = Math.max(windowSize, length);
+            window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, Math.min(mapSize, size - windowStart));
+        }
+        return window;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -23,24 +23,69 @@ import net.microfalx.binserde.utils.ArgumentUtils;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
+/**
+ * An encoder which writes blocks to an output stream.
+ * <p>
+ * The chunk is taken from the {@link ChunkPool} and returned when the encoder is closed, unless the encoder uses
+ * a custom {@link #setBlockSize(int) block size}. An encoder can be reused
+ * for another stream with {@link #reset(OutputStream)}.
+ */
 public class OutputStreamEncoder extends AbstractEncoder {
 
     private OutputStream outputStream;
+    private byte[] chunk;
+    private ByteBuffer buffer;
 
     public OutputStreamEncoder(OutputStream outputStream) {
         ArgumentUtils.requireNonNull(outputStream);
         this.outputStream = outputStream;
     }
 
+    /**
+     * Prepares the encoder to write to another stream.
+     * <p>
+     * Any data not written yet to the previous stream is discarded.
+     *
+     * @param outputStream the output stream
+     */
+    public void reset(OutputStream outputStream) {
+        ArgumentUtils.requireNonNull(outputStream);
+        resetChunk();
+        this.outputStream = outputStream;
+    }
+
     @Override
-    void write(byte[] buffer, int offset, int length) throws IOException {
-        outputStream.write(buffer, offset, length);
+    ByteBuffer nextChunk() {
+        if (buffer == null) {
+            chunk = getBlockSize() == IOUtils.CHUNK_SIZE ? ChunkPool.getInstance().acquire() : new byte[getBlockSize()];
+            buffer = ByteBuffer.wrap(chunk);
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    @Override
+    void write(ByteBuffer block) throws IOException {
+        outputStream.write(block.array(), block.arrayOffset() + block.position(), block.remaining());
     }
 
     @Override
     public void close() throws IOException {
-        flush();
-        outputStream.close();
+        try {
+            flush();
+            outputStream.close();
+        } finally {
+            releaseChunk();
+        }
+    }
+
+    private void releaseChunk() {
+        if (chunk != null) {
+            if (chunk.length == IOUtils.CHUNK_SIZE) ChunkPool.getInstance().release(chunk);
+            chunk = null;
+            buffer = null;
+        }
     }
 }
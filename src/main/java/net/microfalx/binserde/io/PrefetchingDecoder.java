@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package net.microfalx.binserde.io;
+
+import net.microfalx.binserde.deserializer.DeserializerException;
+import net.microfalx.binserde.utils.ArgumentUtils;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A decoder which reads and verifies blocks ahead, on a dedicated reader thread.
+ * <p>
+ * The reader thread reads the stream with large bulk reads, verifies the blocks (header and checksum) and keeps up to
+ * a number of blocks ready, so the decoding thread does not wait for I/O while blocks are available. A failure of the
+ * reader thread is reported when the decoder reaches the failed block.
+ * <p>
+ * The reader thread is created with a {@link ThreadFactory}, by default a platform daemon thread; a factory for
+ * virtual threads can be used with runtimes which support them.
+ */
+public class PrefetchingDecoder extends AbstractDecoder {
+
+    /**
+     * The default number of blocks read ahead
+     */
+    public static final int DEFAULT_CAPACITY = 4;
+
+    /**
+     * The default size of a read from the stream
+     */
+    public static final int DEFAULT_READ_SIZE = 16 * IOUtils.CHUNK_SIZE;
+
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private final InputStream inputStream;
+    private final int capacity;
+    private final BlockingQueue<ByteBuffer> free;
+    private final BlockingQueue<ByteBuffer> ready;
+    private final Thread reader;
+    private int allocated;
+    private ByteBuffer current;
+    private volatile Throwable failure;
+    private volatile boolean closed;
+
+    public PrefetchingDecoder(InputStream inputStream) {
+        this(inputStream, DEFAULT_CAPACITY, PrefetchingDecoder::createThread);
+    }
+
+    /**
+     * Creates a decoder which reads from a stream.
+     *
+     * @param inputStream   the stream
+     * @param capacity      the number of blocks read ahead, at least 1
+     * @param threadFactory the factory which creates the reader thread
+     */
+    public PrefetchingDecoder(InputStream inputStream, int capacity, ThreadFactory threadFactory) {
+        ArgumentUtils.requireNonNull(inputStream);
+        ArgumentUtils.requireNonNull(threadFactory);
+        if (capacity < 1) throw new IllegalArgumentException("Capacity must be at least 1");
+        this.inputStream = new BufferedInputStream(inputStream, DEFAULT_READ_SIZE);
+        this.capacity = capacity;
+        this.free = new ArrayBlockingQueue<>(capacity + 1);
+        this.ready = new ArrayBlockingQueue<>(capacity + 1);
+        this.reader = threadFactory.newThread(this::run);
+        this.reader.start();
+    }
+
+    /**
+     * Returns the number of blocks read ahead.
+     *
+     * @return a positive integer
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    ByteBuffer nextBlock() throws IOException {
+        if (current != null) {
+            free.offer(current);
+            current = null;
+        }
+        ByteBuffer block;
+        try {
+            block = ready.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            InterruptedIOException exception = new InterruptedIOException("Interrupted while waiting for the reader thread");
+            exception.initCause(e);
+            throw exception;
+        }
+        if (block == END) {
+            ready.offer(END);
+            Throwable failure = this.failure;
+            if (failure instanceof IOException) {
+                throw (IOException) failure;
+            } else if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            } else {
+                throw new IOException("Failed to read block", failure);
+            }
+        }
+        current = block;
+        return block;
+    }
+
+    /**
+     * Reads the next block from the stream, called by the reader thread.
+     */
+    @Override
+    ByteBuffer readBlock() throws IOException {
+        ByteBuffer buffer = nextBuffer();
+        byte[] bytes = buffer.array();
+        int headerSize = read(bytes, 0, IOUtils.RESERVED_HEADER);
+        if (headerSize == 0) throw new EOFException("No more blocks");
+        if (headerSize != IOUtils.RESERVED_HEADER) throw new DeserializerException("Corrupted data, invalid block header");
+        int fullHeaderSize = IOUtils.getHeaderSize(IOUtils.getVersion(bytes[10]));
+        if (fullHeaderSize > IOUtils.RESERVED_HEADER) {
+            headerSize += read(bytes, IOUtils.RESERVED_HEADER, fullHeaderSize - IOUtils.RESERVED_HEADER);
+            if (headerSize != fullHeaderSize) throw new DeserializerException("Corrupted data, invalid block header");
+        }
+        int blockSize = IOUtils.getBlockSize(buffer, 0);
+        if (blockSize > IOUtils.MAX_BLOCK_SIZE) throw new DeserializerException("Corrupted data, invalid block length");
+        if (blockSize > bytes.length) {
+            byte[] largerBytes = new byte[blockSize];
+            System.arraycopy(bytes, 0, largerBytes, 0, headerSize);
+            bytes = largerBytes;
+            buffer = ByteBuffer.wrap(bytes);
+        }
+        int read = read(bytes, headerSize, blockSize - headerSize);
+        buffer.clear().limit(headerSize + read);
+        return buffer;
+    }
+
+    /**
+     * Stops the reader thread and closes the stream.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        reader.interrupt();
+        try {
+            inputStream.close();
+        } finally {
+            resetBlock();
+            current = null;
+        }
+    }
+
+    private void run() {
+        try {
+            while (!closed) {
+                ByteBuffer block = readBlock();
+                verify(block);
+                ready.put(block);
+            }
+        } catch (Throwable e) {
+            failure = e;
+            ready.offer(END);
+        }
+    }
+
+    private ByteBuffer nextBuffer() throws IOException {
+        ByteBuffer buffer = free.poll();
+        if (buffer == null) {
+            if (allocated <= capacity) {
+                allocated++;
+                buffer = ByteBuffer.allocate(IOUtils.CHUNK_SIZE);
+            } else {
+                try {
+                    buffer = free.take();
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException("Interrupted while waiting for a free block");
+                }
+            }
+        }
+        return buffer;
+    }
+
+    private int read(byte[] bytes, int offset, int length) throws IOException {
+        int total = 0;
+        while (total < length) {
+            int read = inputStream.read(bytes, offset + total, length - total);
+            if (read < 0) break;
+            total += read;
+        }
+        return total;
+    }
+
+    private static Thread createThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "binserde-reader-" + THREAD_COUNT.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    }
+}
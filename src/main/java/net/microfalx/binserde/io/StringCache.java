@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package net.microfalx.binserde.io;
+
+import net.microfalx.binserde.utils.ArgumentUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of Strings, used by decoders to return the same instance for repeated values.
+ * <p>
+ * Strings are looked up by their UTF-8 bytes, so a String is created only when it is not in the cache. The cache is
+ * made out of slots shared by all threads, without locks: each String has one slot (selected by the hash of its bytes)
+ * and a new String replaces the String held by its slot. Only Strings up to {@link #MAX_LENGTH} bytes are cached.
+ * <p>
+ * The size of the shared cache can be changed with the system property {@code binserde.intern.size}.
+ */
+public final class StringCache {
+
+    /**
+     * The longest String (in UTF-8 bytes) held by the cache
+     */
+    public static final int MAX_LENGTH = 64;
+
+    private static final StringCache instance = new StringCache(Integer.getInteger("binserde.intern.size", 4096));
+
+    private final AtomicReferenceArray<Entry> entries;
+    private final int mask;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    /**
+     * Returns the cache shared by all decoders.
+     *
+     * @return a non-null instance
+     */
+    public static StringCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Creates a cache.
+     *
+     * @param size the number of slots, rounded up to a power of 2
+     */
+    public StringCache(int size) {
+        if (size < 1 || size > (1 << 30)) throw new IllegalArgumentException("Cache size must be between 1 and " + (1 << 30));
+        int slots = Integer.highestOneBit(size);
+        if (slots < size) slots <<= 1;
+        this.entries = new AtomicReferenceArray<>(slots);
+        this.mask = slots - 1;
+    }
+
+    /**
+     * Returns the number of slots.
+     *
+     * @return a positive integer
+     */
+    public int getSize() {
+        return entries.length();
+    }
+
+    /**
+     * Returns the number of Strings found in the cache.
+     *
+     * @return a positive integer
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * Returns the number of Strings created because they were not in the cache.
+     *
+     * @return a positive integer
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * Returns the String encoded (with UTF-8) by a region of an array.
+     *
+     * @param bytes  the array
+     * @param offset the index of the first byte
+     * @param length the number of bytes
+     * @return a non-null instance
+     */
+    public String get(byte[] bytes, int offset, int length) {
+        ArgumentUtils.requireNonNull(bytes);
+        if (length > MAX_LENGTH) return new String(bytes, offset, length, StandardCharsets.UTF_8);
+        int hash = hashCode(bytes, offset, length);
+        int slot = hash & mask;
+        Entry entry = entries.get(slot);
+        if (entry != null && entry.hash == hash && Arrays.equals(entry.bytes, 0, entry.bytes.length, bytes, offset, offset + length)) {
+            hitCount.increment();
+            return entry.value;
+        }
+        missCount.increment();
+        String value = new String(bytes, offset, length, StandardCharsets.UTF_8);
+        entries.set(slot, new Entry(hash, Arrays.copyOfRange(bytes, offset, offset + length), value));
+        return value;
+    }
+
+    /**
+     * Removes all the Strings from the cache.
+     */
+    public void clear() {
+        for (int index = 0; index < entries.length(); index++) {
+            entries.set(index, null);
+        }
+    }
+
+    private static int hashCode(byte[] bytes, int offset, int length) {
+        int hash = IOUtils.hashCode(bytes, offset, length);
+        return hash ^ (hash >>> 16);
+    }
+
+    @Override
+    public String toString() {
+        return "StringCache{" + "size=" + getSize() + ", hitCount=" + getHitCount() + ", missCount=" + getMissCount() + '}';
+    }
+
+    private static final class Entry {
+
+        private final int hash;
+        private final byte[] bytes;
+        private final String value;
+
+        private Entry(int hash, byte[] bytes, String value) {
+            this.hash = hash;
+            this.bytes = bytes;
+            this.value = value;
+        }
+    }
+}
@@ -20,6 +20,7 @@
 package net.microfalx.binserde.metadata;
 
 import net.microfalx.binserde.SerializerFactory;
+import net.microfalx.binserde.SerializerProvider;
 import net.microfalx.binserde.annotation.Tag;
 import net.microfalx.binserde.io.Decoder;
 import net.microfalx.binserde.io.Encoder;
@@ -51,7 +52,9 @@ public class ClassInfo {
     private final List<FieldInfo> fieldsByIndex = new ArrayList<>();
 
     private volatile String signature;
+    private volatile String layout;
     private final static Map<Short, ClassInfo> cache = new ConcurrentHashMap<>();
+    private final static Map<String, ClassInfo> streamCache = new ConcurrentHashMap<>();
 
     /**
      * Creates class information out of a Java class.
@@ -63,14 +66,44 @@ public class ClassInfo {
         short identifier = SerializerFactory.getInstance().getIdentifier(clazz);
         ClassInfo classInfo = cache.get(identifier);
         if (classInfo != null) return classInfo;
-        classInfo = new ClassInfo(clazz, identifier, clazz.getSimpleName());
-        classInfo.load();
+        SerializerProvider<?> provider = SerializerFactory.getInstance().findProvider(clazz);
+        if (provider != null) {
+            classInfo = provider.createClassInfo();
+        } else {
+            classInfo = new ClassInfo(clazz, identifier, clazz.getSimpleName());
+            classInfo.load();
+        }
         cache.put(identifier, classInfo);
         return classInfo;
     }
 
+    /**
+     * Creates class information out of a table of fields, usually generated at build time.
+     * <p>
+     * The fields must be listed in the same order as they are discovered with reflection: fields declared by the
+     * class first, followed by the fields of the super classes.
+     *
+     * @param clazz  the class
+     * @param fields the fields
+     * @return a non-null instance
+     * @see SerializerProvider
+     */
+    public static ClassInfo create(Class<?> clazz, List<FieldInfo> fields) {
+        ArgumentUtils.requireNonNull(fields);
+        short identifier = SerializerFactory.getInstance().getIdentifier(clazz);
+        ClassInfo classInfo = new ClassInfo(clazz, identifier, clazz.getSimpleName());
+        for (FieldInfo field : fields) {
+            classInfo.register(field);
+        }
+        return classInfo;
+    }
+
     /**
      * Creates class information from a serialized stream.
+     * <p>
+     * Class information is interned by layout (see {@link #getLayout()}), the same instance is returned for every
+     * stream which carries the same version of a class. The field table is looked up before field information is
+     * created.
      *
      * @param decoder the decoder
      * @return a non-null instance
@@ -79,10 +112,45 @@ public class ClassInfo {
     public static ClassInfo create(Decoder decoder) throws IOException {
         short identifier = decoder.readShort();
         String name = decoder.readString();
+        int fieldCount = decoder.readShort();
+        String[] names = new String[fieldCount];
+        byte[] dataTypes = new byte[fieldCount];
+        boolean[] primitives = new boolean[fieldCount];
+        short[] classIdentifiers = new short[fieldCount];
+        short[] tags = new short[fieldCount];
+        StringBuilder builder = new StringBuilder();
+        appendClass(builder, identifier, name);
+        for (int index = 0; index < fieldCount; index++) {
+            names[index] = decoder.readString();
+            dataTypes[index] = decoder.readByte();
+            primitives[index] = decoder.readBoolean();
+            classIdentifiers[index] = decoder.readShort();
+            tags[index] = decoder.readShort();
+            appendField(builder, names[index], dataTypes[index], primitives[index], classIdentifiers[index], tags[index]);
+        }
+        String layout = builder.toString();
+        ClassInfo classInfo = streamCache.get(layout);
+        if (classInfo != null) return classInfo;
         Class<?> clazz = SerializerFactory.getInstance().getClass(identifier);
-        ClassInfo classInfo = new ClassInfo(clazz, identifier, name);
-        classInfo.load(decoder);
-        return classInfo;
+        classInfo = new ClassInfo(clazz, identifier, name);
+        for (int index = 0; index < fieldCount; index++) {
+            classInfo.register(FieldInfo.create(names[index], DataType.fromId(dataTypes[index]), primitives[index],
+                    classIdentifiers[index], tags[index]));
+        }
+        classInfo.layout = layout;
+        ClassInfo existingClassInfo = streamCache.putIfAbsent(layout, classInfo);
+        return existingClassInfo != null ? existingClassInfo : classInfo;
+    }
+
+    /**
+     * Discards the class information created from Java classes and from streams.
+     * <p>
+     * The method is called by the {@link SerializerFactory} when its configuration changes, so the class information
+     * (and the field accessors) are created again with the new configuration.
+     */
+    public static void clearCache() {
+        cache.clear();
+        streamCache.clear();
     }
 
     private ClassInfo(Class<?> clazz, short identifier, String name) {
@@ -126,13 +194,29 @@ public class ClassInfo {
      * Returns the class signature.
      * <p>
      * A signature is generated based on class identifier and a hash which uniquely identifies the version of the class.
+     * The signature is calculated on first use.
      *
      * @return a non-empty String
      */
     public String getSignature() {
+        if (signature == null) signature = calculateSignature();
         return signature;
     }
 
+    /**
+     * Returns the layout of the class.
+     * <p>
+     * Unlike the signature, the layout identifies the class exactly: it holds every attribute of every field (name,
+     * data type, primitive flag, class identifier and tag) in the order the fields are stored in the stream.
+     * The layout is calculated on first use.
+     *
+     * @return a non-empty String
+     */
+    public String getLayout() {
+        if (layout == null) layout = calculateLayout();
+        return layout;
+    }
+
     /**
      * Returns a field by its name.
      *
@@ -144,6 +228,23 @@ public class ClassInfo {
         return fieldsByName.get(name.toLowerCase());
     }
 
+    /**
+     * Returns the field which matches a field of another version of this class.
+     * <p>
+     * Fields with a tag are matched by tag, all other fields are matched by name.
+     *
+     * @param fieldInfo the field of the other version
+     * @return the field if exists, {@code NULL} otherwise
+     */
+    public FieldInfo findField(FieldInfo fieldInfo) {
+        ArgumentUtils.requireNonNull(fieldInfo);
+        if (fieldInfo.getTag() == FieldInfo.NO_TAG) {
+            return fieldsByName.get(fieldInfo.getKey());
+        } else {
+            return fieldsByTag.get(fieldInfo.getTag());
+        }
+    }
+
     /**
      * Returns a field by its name.
      *
@@ -214,36 +315,51 @@ public class ClassInfo {
             Field[] fields = rootClass.getDeclaredFields();
             for (Field field : fields) {
                 if (Modifier.isStatic(field.getModifiers())) continue;
+                if (!field.isAccessible()) field.setAccessible(true);
                 FieldInfo fieldInfo = FieldInfo.create(field);
+                fieldInfo.setAccessor(createAccessor(field));
                 register(fieldInfo);
-                if (!field.isAccessible()) field.setAccessible(true);
             }
             rootClass = rootClass.getSuperclass();
         }
-        signature = calculateSignature();
     }
 
-    private void load(Decoder decoder) throws IOException {
-        short fieldCount = decoder.readShort();
-        for (int index = 0; index < fieldCount; index++) {
-            FieldInfo fieldInfo = FieldInfo.create(decoder);
-            register(fieldInfo);
-        }
-        signature = calculateSignature();
+    private FieldAccessor createAccessor(Field field) {
+        boolean unsafe = SerializerFactory.getInstance().isUnsafeEnabled() && !Modifier.isVolatile(field.getModifiers());
+        return unsafe ? UnsafeFieldAccessor.create(field) : MethodHandleFieldAccessor.create(field);
     }
 
     private void register(FieldInfo fieldInfo) {
-        String name = fieldInfo.getName();
-        if (fieldsByName.containsKey(name.toLowerCase())) {
-            throw new MetadataException("A field with name '" + name + "' is already registered with " + clazz.getName());
+        if (fieldsByName.containsKey(fieldInfo.getKey())) {
+            throw new MetadataException("A field with name '" + fieldInfo.getName() + "' is already registered with " + clazz.getName());
         }
-        fieldsByName.put(name.toLowerCase(), fieldInfo);
+        fieldsByName.put(fieldInfo.getKey(), fieldInfo);
         if (fieldInfo.getTag() != FieldInfo.NO_TAG) {
             fieldsByTag.put(fieldInfo.getTag(), fieldInfo);
         }
         fieldsByIndex.add(fieldInfo);
     }
 
+    private String calculateLayout() {
+        StringBuilder builder = new StringBuilder();
+        appendClass(builder, identifier, name);
+        for (FieldInfo field : fieldsByIndex) {
+            appendField(builder, field.getName(), (byte) field.getDataType().ordinal(), field.isPrimitive(),
+                    field.getClassIdentifier(), field.getTag());
+        }
+        return builder.toString();
+    }
+
+    private static void appendClass(StringBuilder builder, short identifier, String name) {
+        builder.append(identifier).append(':').append(name);
+    }
+
+    private static void appendField(StringBuilder builder, String name, byte dataType, boolean primitive,
+                                    short classIdentifier, short tag) {
+        builder.append('\0').append(name).append('\0').append(dataType).append(',').append(primitive)
+                .append(',').append(classIdentifier).append(',').append(tag);
+    }
+
     private String calculateSignature() {
         try {
             MessageDigest digest = MessageDigest.getInstance("MD5");
@@ -276,12 +392,12 @@ public class ClassInfo {
 
         ClassInfo classInfo = (ClassInfo) o;
 
-        return signature.equals(classInfo.signature);
+        return getSignature().equals(classInfo.getSignature());
     }
 
     @Override
     public int hashCode() {
-        return signature.hashCode();
+        return getSignature().hashCode();
     }
 
     @Override
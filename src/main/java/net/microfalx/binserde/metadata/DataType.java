@@ -66,6 +66,14 @@ public enum DataType {
         OTHER
     }
 
+    private static final DataType[] BY_ID = new DataType[TIME_ZONE_OFFSET.id + 1];
+
+    static {
+        for (DataType dataType : values()) {
+            BY_ID[dataType.id] = dataType;
+        }
+    }
+
     private Category category;
     private byte id;
 
@@ -85,4 +93,19 @@ public enum DataType {
     public static DataType fromId(byte value) {
         return DataType.values()[value];
     }
+
+    /**
+     * Returns the data type with a given identifier, see {@link #getId()}.
+     * <p>
+     * Identifiers tag untyped values (collection elements, map keys and values) in the stream, while class
+     * descriptors store the position of the data type, resolved with {@link #fromId(byte)}.
+     *
+     * @param id the identifier
+     * @return a non-null instance
+     */
+    public static DataType fromTypeId(byte id) {
+        DataType dataType = id >= 0 && id < BY_ID.length ? BY_ID[id] : null;
+        if (dataType == null) throw new MetadataException("Unknown data type identifier " + id);
+        return dataType;
+    }
 }
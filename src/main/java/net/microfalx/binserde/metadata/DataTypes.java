@@ -54,6 +54,9 @@ public class DataTypes {
     public static final byte BASE_MAP = 0x06;
     public static final byte BASE_ARRAY = 0x07;
     public static final byte BASE_BIN = 0x09;
+    public static final byte BASE_BIN_STREAM = 0x0A;
+    public static final byte BASE_STRING_REF = 0x0B;
+    public static final byte BASE_STRING_DEF = 0x0C;
     public static final byte BASE_OBJECT = 0x0D;
     public static final byte BASE_CLASS_INFO = 0x0E;
     public static final byte BASE_CLASS_SIGNATURE = 0x0F;
@@ -124,8 +127,20 @@ public class DataTypes {
         }
     }
 
+    /**
+     * Returns the data type used to store instances of a given class.
+     * <p>
+     * The data type is resolved once per class, following lookups do not walk the class hierarchy again.
+     *
+     * @param clazz the class
+     * @return a non-null instance
+     */
     public static DataType getDataType(Class<?> clazz) {
         ArgumentUtils.requireNonNull(clazz);
+        return DATA_TYPES.get(clazz);
+    }
+
+    private static DataType resolveDataType(Class<?> clazz) {
         DataType dataType = class2DataType.get(clazz);
         if (dataType != null) {
             return dataType;
@@ -162,6 +177,14 @@ public class DataTypes {
 
     private static final Map<Class<?>, DataType> class2DataType = new HashMap<>();
 
+    private static final ClassValue<DataType> DATA_TYPES = new ClassValue<>() {
+
+        @Override
+        protected DataType computeValue(Class<?> type) {
+            return resolveDataType(type);
+        }
+    };
+
     static {
         class2DataType.put(Boolean.class, DataType.BOOLEAN);
         class2DataType.put(boolean.class, DataType.BOOLEAN);
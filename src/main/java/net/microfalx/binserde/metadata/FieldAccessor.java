@@ -0,0 +1,211 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package net.microfalx.binserde.metadata;
+
+/**
+ * Reads and writes the value of a field.
+ * <p>
+ * An accessor is resolved once per field, when the class information is loaded, and it is shared by
+ * serializers and deserializers. This avoids the access checks performed by {@link java.lang.reflect.Field}
+ * for every read or write.
+ * <p>
+ * Primitive fields can be accessed with the typed methods ({@link #getInteger(Object)}, {@link #setInteger(Object, int)},
+ * etc), which do not box the value. Calling a typed method which does not match the field type is not supported.
+ * The default implementations of the typed methods box the value and delegate to {@link #get(Object)} and
+ * {@link #set(Object, Object)}.
+ */
+public interface FieldAccessor {
+
+    /**
+     * Returns the value of the field.
+     *
+     * @param instance the object which holds the field
+     * @return the value, primitives are boxed
+     */
+    Object get(Object instance);
+
+    /**
+     * Changes the value of the field.
+     *
+     * @param instance the object which holds the field
+     * @param value    the new value, primitives are unboxed
+     */
+    void set(Object instance, Object value);
+
+    /**
+     * Returns the value of a {@code boolean} field, without boxing.
+     *
+     * @param instance the object which holds the field
+     * @return the value
+     */
+    default boolean getBoolean(Object instance) {
+        return (Boolean) get(instance);
+    }
+
+    /**
+     * Changes the value of a {@code boolean} field, without boxing.
+     *
+     * @param instance the object which holds the field
+     * @param value    the new value
+     */
+    default void setBoolean(Object instance, boolean value) {
+        set(instance, value);
+    }
+
+    /**
+     * Returns the value of a {@code byte} field, without boxing.
+     *
+     * @param instance the object which holds the field
+     * @return the value
+     */
+    default byte getByte(Object instance) {
+        return (Byte) get(instance);
+    }
+
+    /**
+     * Changes the value of a {@code byte} field, without boxing.
+     *
+     * @param instance the object which holds the field
+     * @param value    the new value
+     */
+    default void setByte(Object instance, byte value) {
+        set(instance, value);
+    }
+
+    /**
+     * Returns the value of a {@code short} field, without boxing.
+     *
+     * @param instance the object which holds the field
+     * @return the value
+     */
+    default short getShort(Object instance) {
+        return (Short) get(instance);
+    }
+
+    /**
+     * Changes the value of a {@code short} field, without boxing.
+     *
+     * @param instance the object which holds the field
+     * @param value    the new value
+     */
+    default void setShort(Object instance, short value) {
+        set(instance, value);
+    }
+
+    /**
+     * Returns the value of a {@code char} field, without boxing.
+     *
+     * @param instance the object which holds the field
+     * @return the value
+     */
+    default char getCharacter(Object instance) {
+        return (Character) get(instance);
+    }
+
+    /**
+     * Changes the value of a {@code char} field, without boxing.
+     *
+     * @param instance the object which holds the field
+     * @param value    the new value
+     */
+    default void setCharacter(Object instance, char value) {
+        set(instance, value);
+    }
+
+    /**
+     * Returns the value of a {@code int} field, without boxing.
+     *
+     * @param instance the object which holds the field
+     * @return the value
+     */
+    default int getInteger(Object instance) {
+        return (Integer) get(instance);
+    }
+
+    /**
+     * Changes the value of a {@code int} field, without boxing.
+     *
+     * @param instance the object which holds the field
+     * @param value    the new value
+     */
+    default void setInteger(Object instance, int value) {
+        set(instance, value);
+    }
+
+    /**
+     * Returns the value of a {@code long} field, without boxing.
+     *
+     * @param instance the object which holds the field
+     * @return the value
+     */
+    default long getLong(Object instance) {
+        return (Long) get(instance);
+    }
+
+    /**
+     * Changes the value of a {@code long} field, without boxing.
+     *
+     * @param instance the object which holds the field
+     * @param value    the new value
+     */
+    default void setLong(Object instance, long value) {
+        set(instance, value);
+    }
+
+    /**
+     * Returns the value of a {@code float} field, without boxing.
+     *
+     * @param instance the object which holds the field
+     * @return the value
+     */
+    default float getFloat(Object instance) {
+        return (Float) get(instance);
+    }
+
+    /**
+     * Changes the value of a {@code float} field, without boxing.
+     *
+     * @param instance the object which holds the field
+     * @param value    the new value
+     */
+    default void setFloat(Object instance, float value) {
+        set(instance, value);
+    }
+
+    /**
+     * Returns the value of a {@code double} field, without boxing.
+     *
+     * @param instance the object which holds the field
+     * @return the value
+     */
+    default double getDouble(Object instance) {
+        return (Double) get(instance);
+    }
+
+    /**
+     * Changes the value of a {@code double} field, without boxing.
+     *
+     * @param instance the object which holds the field
+     * @param value    the new value
+     */
+    default void setDouble(Object instance, double value) {
+        set(instance, value);
+    }
+}
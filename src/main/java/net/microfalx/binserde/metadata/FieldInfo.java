@@ -20,6 +20,7 @@
 package net.microfalx.binserde.metadata;
 
 import net.microfalx.binserde.SerializerFactory;
+import net.microfalx.binserde.annotation.Intern;
 import net.microfalx.binserde.annotation.Tag;
 import net.microfalx.binserde.io.Decoder;
 import net.microfalx.binserde.io.Encoder;
@@ -42,12 +43,15 @@ public class FieldInfo {
     public static final byte NO_TAG = -1;
 
     private final String name;
+    private final String key;
     private final DataType dataType;
     private final boolean primitive;
     private final short classIdentifier;
     private final short tag;
 
     private Field field;
+    private boolean intern;
+    private FieldAccessor accessor;
 
     public static FieldInfo create(Field field) {
         ArgumentUtils.requireNonNull(field);
@@ -56,20 +60,59 @@ public class FieldInfo {
         short tag = field.getAnnotation(Tag.class) != null ? field.getAnnotation(Tag.class).value() : NO_TAG;
         FieldInfo fieldInfo = new FieldInfo(field.getName(), dataType, field.getType().isPrimitive(), identifier, tag);
         fieldInfo.field = field;
+        fieldInfo.intern = field.isAnnotationPresent(Intern.class);
+        return fieldInfo;
+    }
+
+    /**
+     * Creates field information without reflection, usually from a table generated at build time.
+     *
+     * @param name     the field name
+     * @param type     the field type
+     * @param tag      the tag associated with the field, {@link #NO_TAG} if the field has no tag
+     * @param accessor the accessor used to read or write the field value
+     * @return a non-null instance
+     */
+    public static FieldInfo create(String name, Class<?> type, short tag, FieldAccessor accessor) {
+        return create(name, type, tag, false, accessor);
+    }
+
+    /**
+     * Creates field information without reflection, usually from a table generated at build time.
+     *
+     * @param name     the field name
+     * @param type     the field type
+     * @param tag      the tag associated with the field, {@link #NO_TAG} if the field has no tag
+     * @param intern   {@code true} if the values of the field are interned when deserialized, see {@link Intern}
+     * @param accessor the accessor used to read or write the field value
+     * @return a non-null instance
+     */
+    public static FieldInfo create(String name, Class<?> type, short tag, boolean intern, FieldAccessor accessor) {
+        ArgumentUtils.requireNonNull(type);
+        ArgumentUtils.requireNonNull(accessor);
+        DataType dataType = DataTypes.getDataType(type);
+        short identifier = dataType == OBJECT ? SerializerFactory.getInstance().getIdentifier(type) : -1;
+        FieldInfo fieldInfo = new FieldInfo(name, dataType, type.isPrimitive(), identifier, tag);
+        fieldInfo.intern = intern;
+        fieldInfo.accessor = accessor;
         return fieldInfo;
     }
 
     public static FieldInfo create(Decoder decoder) throws IOException {
         ArgumentUtils.requireNonNull(decoder);
-        FieldInfo fieldInfo = new FieldInfo(decoder.readString(), DataType.fromId(decoder.readByte()),
-                decoder.readBoolean(), decoder.readShort(), decoder.readShort());
-        return fieldInfo;
+        return create(decoder.readString(), DataType.fromId(decoder.readByte()), decoder.readBoolean(),
+                decoder.readShort(), decoder.readShort());
+    }
+
+    static FieldInfo create(String name, DataType dataType, boolean primitive, short classIdentifier, short tag) {
+        return new FieldInfo(name, dataType, primitive, classIdentifier, tag);
     }
 
     private FieldInfo(String name, DataType dataType, boolean primitive, short classIdentifier, short tag) {
         ArgumentUtils.requireNonNull(name);
         ArgumentUtils.requireNonNull(dataType);
         this.name = name;
+        this.key = name.toLowerCase();
         this.dataType = dataType;
         this.primitive = primitive;
         this.classIdentifier = classIdentifier;
@@ -85,6 +128,15 @@ public class FieldInfo {
         return name;
     }
 
+    /**
+     * Returns the key used to look up the field by name, the name in lower case.
+     *
+     * @return a non-empty String
+     */
+    String getKey() {
+        return key;
+    }
+
     /**
      * Returns the data type.
      *
@@ -127,15 +179,47 @@ public class FieldInfo {
         return tag;
     }
 
+    /**
+     * Returns whether the values of the field are interned when deserialized, see {@link Intern}.
+     * <p>
+     * It applies only to local fields, it is not stored with the class.
+     *
+     * @return {@code true} to intern values, {@code false} otherwise
+     */
+    public boolean isIntern() {
+        return intern;
+    }
+
     /**
      * Return a cached reflection field.
      *
-     * @return a non-null instance
+     * @return the field, {@code null} if the field was not loaded with reflection
      */
     public Field getField() {
         return field;
     }
 
+    /**
+     * Returns the accessor used to read or write the field value.
+     * <p>
+     * The accessor is available only for fields loaded from a Java class.
+     *
+     * @return the accessor, {@code null} if the field was loaded from a stream
+     */
+    public FieldAccessor getAccessor() {
+        return accessor;
+    }
+
+    /**
+     * Attaches the accessor used to read or write the field value.
+     *
+     * @param accessor the accessor
+     */
+    void setAccessor(FieldAccessor accessor) {
+        ArgumentUtils.requireNonNull(accessor);
+        this.accessor = accessor;
+    }
+
     /**
      * Stores field information in the stream.
      * <p>
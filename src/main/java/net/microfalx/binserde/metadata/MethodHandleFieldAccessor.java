@@ -0,0 +1,243 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package net.microfalx.binserde.metadata;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+
+/**
+ * A field accessor backed by method handles.
+ * <p>
+ * The handles are adapted to erased types (or to the primitive type, for primitive fields) so they can be invoked
+ * exactly, without the argument adaptation performed by {@link MethodHandle#invoke(Object...)}.
+ */
+final class MethodHandleFieldAccessor implements FieldAccessor {
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final Field field;
+    private final MethodHandle getter;
+    private final MethodHandle setter;
+    private final MethodHandle primitiveGetter;
+    private final MethodHandle primitiveSetter;
+
+    static FieldAccessor create(Field field) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            return new MethodHandleFieldAccessor(field, lookup.unreflectGetter(field), lookup.unreflectSetter(field));
+        } catch (IllegalAccessException e) {
+            throw new MetadataException("Failed to create accessor for field '" + field.getName() + "'", e);
+        }
+    }
+
+    private MethodHandleFieldAccessor(Field field, MethodHandle getter, MethodHandle setter) {
+        this.field = field;
+        this.getter = getter.asType(GETTER_TYPE);
+        this.setter = setter.asType(SETTER_TYPE);
+        Class<?> type = field.getType();
+        if (type.isPrimitive()) {
+            this.primitiveGetter = getter.asType(MethodType.methodType(type, Object.class));
+            this.primitiveSetter = setter.asType(MethodType.methodType(void.class, Object.class, type));
+        } else {
+            this.primitiveGetter = null;
+            this.primitiveSetter = null;
+        }
+    }
+
+    @Override
+    public Object get(Object instance) {
+        try {
+            return (Object) getter.invokeExact(instance);
+        } catch (Throwable e) {
+            throw rethrow(e, "extract");
+        }
+    }
+
+    @Override
+    public void set(Object instance, Object value) {
+        try {
+            setter.invokeExact(instance, value);
+        } catch (Throwable e) {
+            throw rethrow(e, "set");
+        }
+    }
+
+    @Override
+    public boolean getBoolean(Object instance) {
+        try {
+            return (boolean) primitiveGetter.invokeExact(instance);
+        } catch (Throwable e) {
+            throw rethrow(e, "extract");
+        }
+    }
+
+    @Override
+    public void setBoolean(Object instance, boolean value) {
+        try {
+            primitiveSetter.invokeExact(instance, value);
+        } catch (Throwable e) {
+            throw rethrow(e, "set");
+        }
+    }
+
+    @Override
+    public byte getByte(Object instance) {
+        try {
+            return (byte) primitiveGetter.invokeExact(instance);
+        } catch (Throwable e) {
+            throw rethrow(e, "extract");
+        }
+    }
+
+    @Override
+    public void setByte(Object instance, byte value) {
+        try {
+            primitiveSetter.invokeExact(instance, value);
+        } catch (Throwable e) {
+            throw rethrow(e, "set");
+        }
+    }
+
+    @Override
+    public short getShort(Object instance) {
+        try {
+            return (short) primitiveGetter.invokeExact(instance);
+        } catch (Throwable e) {
+            throw rethrow(e, "extract");
+        }
+    }
+
+    @Override
+    public void setShort(Object instance, short value) {
+        try {
+            primitiveSetter.invokeExact(instance, value);
+        } catch (Throwable e) {
+            throw rethrow(e, "set");
+        }
+    }
+
+    @Override
+    public char getCharacter(Object instance) {
+        try {
+            return (char) primitiveGetter.invokeExact(instance);
+        } catch (Throwable e) {
+            throw rethrow(e, "extract");
+        }
+    }
+
+    @Override
+    public void setCharacter(Object instance, char value) {
+        try {
+            primitiveSetter.invokeExact(instance, value);
+        } catch (Throwable e) {
+            throw rethrow(e, "set");
+        }
+    }
+
+    @Override
+    public int getInteger(Object instance) {
+        try {
+            return (int) primitiveGetter.invokeExact(instance);
+        } catch (Throwable e) {
+            throw rethrow(e, "extract");
+        }
+    }
+
+    @Override
+    public void setInteger(Object instance, int value) {
+        try {
+            primitiveSetter.invokeExact(instance, value);
+        } catch (Throwable e) {
+            throw rethrow(e, "set");
+        }
+    }
+
+    @Override
+    public long getLong(Object instance) {
+        try {
+            return (long) primitiveGetter.invokeExact(instance);
+        } catch (Throwable e) {
+            throw rethrow(e, "extract");
+        }
+    }
+
+    @Override
+    public void setLong(Object instance, long value) {
+        try {
+            primitiveSetter.invokeExact(instance, value);
+        } catch (Throwable e) {
+            throw rethrow(e, "set");
+        }
+    }
+
+    @Override
+    public float getFloat(Object instance) {
+        try {
+            return (float) primitiveGetter.invokeExact(instance);
+        } catch (Throwable e) {
+            throw rethrow(e, "extract");
+        }
+    }
+
+    @Override
+    public void setFloat(Object instance, float value) {
+        try {
+            primitiveSetter.invokeExact(instance, value);
+        } catch (Throwable e) {
+            throw rethrow(e, "set");
+        }
+    }
+
+    @Override
+    public double getDouble(Object instance) {
+        try {
+            return (double) primitiveGetter.invokeExact(instance);
+        } catch (Throwable e) {
+            throw rethrow(e, "extract");
+        }
+    }
+
+    @Override
+    public void setDouble(Object instance, double value) {
+        try {
+            primitiveSetter.invokeExact(instance, value);
+        } catch (Throwable e) {
+            throw rethrow(e, "set");
+        }
+    }
+
+    private RuntimeException rethrow(Throwable throwable, String action) {
+        if (throwable instanceof RuntimeException) {
+            return (RuntimeException) throwable;
+        } else if (throwable instanceof Error) {
+            throw (Error) throwable;
+        } else {
+            return new MetadataException("Failed to " + action + " value for field '" + field.getName() + "'", throwable);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "MethodHandleFieldAccessor{" + "field=" + field + '}';
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package net.microfalx.binserde.metadata;
+
+import net.microfalx.binserde.utils.UnsafeUtils;
+import sun.misc.Unsafe;
+
+import java.lang.reflect.Field;
+
+/**
+ * A field accessor which reads and writes fields directly at their offset in the object, using {@link Unsafe}.
+ * <p>
+ * Primitive fields are accessed without boxing and without any access checks; only the type of the instance is
+ * validated. This accessor is used only when Unsafe is available and enabled in
+ * {@link net.microfalx.binserde.SerializerFactory}.
+ */
+final class UnsafeFieldAccessor implements FieldAccessor {
+
+    private static final Unsafe UNSAFE = UnsafeUtils.getUnsafe();
+
+    private final Field field;
+    private final Class<?> declaringClass;
+    private final Class<?> type;
+    private final long offset;
+
+    static FieldAccessor create(Field field) {
+        return new UnsafeFieldAccessor(field);
+    }
+
+    private UnsafeFieldAccessor(Field field) {
+        this.field = field;
+        this.declaringClass = field.getDeclaringClass();
+        this.type = field.getType();
+        this.offset = UnsafeUtils.getFieldOffset(field);
+    }
+
+    @Override
+    public Object get(Object instance) {
+        if (!type.isPrimitive()) {
+            return UNSAFE.getObject(declaringClass.cast(instance), offset);
+        } else if (type == int.class) {
+            return UNSAFE.getInt(declaringClass.cast(instance), offset);
+        } else if (type == long.class) {
+            return UNSAFE.getLong(declaringClass.cast(instance), offset);
+        } else if (type == double.class) {
+            return UNSAFE.getDouble(declaringClass.cast(instance), offset);
+        } else if (type == float.class) {
+            return UNSAFE.getFloat(declaringClass.cast(instance), offset);
+        } else if (type == boolean.class) {
+            return UNSAFE.getBoolean(declaringClass.cast(instance), offset);
+        } else if (type == short.class) {
+            return UNSAFE.getShort(declaringClass.cast(instance), offset);
+        } else if (type == byte.class) {
+            return UNSAFE.getByte(declaringClass.cast(instance), offset);
+        } else {
+            return UNSAFE.getChar(declaringClass.cast(instance), offset);
+        }
+    }
+
+    @Override
+    public void set(Object instance, Object value) {
+        if (!type.isPrimitive()) {
+            UNSAFE.putObject(declaringClass.cast(instance), offset, type.cast(value));
+        } else if (type == int.class) {
+            UNSAFE.putInt(declaringClass.cast(instance), offset, (Integer) value);
+        } else if (type == long.class) {
+            UNSAFE.putLong(declaringClass.cast(instance), offset, (Long) value);
+        } else if (type == double.class) {
+            UNSAFE.putDouble(declaringClass.cast(instance), offset, (Double) value);
+        } else if (type == float.class) {
+            UNSAFE.putFloat(declaringClass.cast(instance), offset, (Float) value);
+        } else if (type == boolean.class) {
+            UNSAFE.putBoolean(declaringClass.cast(instance), offset, (Boolean) value);
+        } else if (type == short.class) {
+            UNSAFE.putShort(declaringClass.cast(instance), offset, (Short) value);
+        } else if (type == byte.class) {
+            UNSAFE.putByte(declaringClass.cast(instance), offset, (Byte) value);
+        } else {
+            UNSAFE.putChar(declaringClass.cast(instance), offset, (Character) value);
+        }
+    }
+
+    @Override
+    public boolean getBoolean(Object instance) {
+        return UNSAFE.getBoolean(declaringClass.cast(instance), offset);
+    }
+
+    @Override
+    public void setBoolean(Object instance, boolean value) {
+        UNSAFE.putBoolean(declaringClass.cast(instance), offset, value);
+    }
+
+    @Override
+    public byte getByte(Object instance) {
+        return UNSAFE.getByte(declaringClass.cast(instance), offset);
+    }
+
+    @Override
+    public void setByte(Object instance, byte value) {
+        UNSAFE.putByte(declaringClass.cast(instance), offset, value);
+    }
+
+    @Override
+    public short getShort(Object instance) {
+        return UNSAFE.getShort(declaringClass.cast(instance), offset);
+    }
+
+    @Override
+    public void setShort(Object instance, short value) {
+        UNSAFE.putShort(declaringClass.cast(instance), offset, value);
+    }
+
+    @Override
+    public char getCharacter(Object instance) {
+        return UNSAFE.getChar(declaringClass.cast(instance), offset);
+    }
+
+    @Override
+    public void setCharacter(Object instance, char value) {
+        UNSAFE.putChar(declaringClass.cast(instance), offset, value);
+    }
+
+    @Override
+    public int getInteger(Object instance) {
+        return UNSAFE.getInt(declaringClass.cast(instance), offset);
+    }
+
+    @Override
+    public void setInteger(Object instance, int value) {
+        UNSAFE.putInt(declaringClass.cast(instance), offset, value);
+    }
+
+    @Override
+    public long getLong(Object instance) {
+        return UNSAFE.getLong(declaringClass.cast(instance), offset);
+    }
+
+    @Override
+    public void setLong(Object instance, long value) {
+        UNSAFE.putLong(declaringClass.cast(instance), offset, value);
+    }
+
+    @Override
+    public float getFloat(Object instance) {
+        return UNSAFE.getFloat(declaringClass.cast(instance), offset);
+    }
+
+    @Override
+    public void setFloat(Object instance, float value) {
+        UNSAFE.putFloat(declaringClass.cast(instance), offset, value);
+    }
+
+    @Override
+    public double getDouble(Object instance) {
+        return UNSAFE.getDouble(declaringClass.cast(instance), offset);
+    }
+
+    @Override
+    public void setDouble(Object instance, double value) {
+        UNSAFE.putDouble(declaringClass.cast(instance), offset, value);
+    }
+
+    @Override
+    public String toString() {
+        return "UnsafeFieldAccessor{" + "field=" + field + ", offset=" + offset + '}';
+    }
+}
@@ -19,6 +19,10 @@
 
 package net.microfalx.binserde.serializer;
 
+import net.microfalx.binserde.io.Encoder;
+
+import java.io.IOException;
+
 import static net.microfalx.binserde.utils.ArgumentUtils.requireNonNull;
 
 public abstract class AbstractSerializer<T> implements Serializer<T> {
@@ -34,4 +38,10 @@ public abstract class AbstractSerializer<T> implements Serializer<T> {
     public final Class<T> getType() {
         return type;
     }
+
+    @Override
+    public void serialize(T data, Encoder encoder) throws IOException {
+        requireNonNull(encoder);
+        serialize(data, new SerializerContext(encoder));
+    }
 }
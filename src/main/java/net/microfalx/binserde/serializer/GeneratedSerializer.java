@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package net.microfalx.binserde.serializer;
+
+import net.microfalx.binserde.metadata.ClassInfo;
+import net.microfalx.binserde.metadata.DataType;
+import net.microfalx.binserde.metadata.FieldInfo;
+
+import java.io.IOException;
+import java.util.List;
+
+import static net.microfalx.binserde.utils.ArgumentUtils.requireNonNull;
+
+/**
+ * Base class for serializers generated for a specific type.
+ * <p>
+ * A generated serializer writes the fields of its own type with straight-line code, in the order given by
+ * {@link ClassInfo#getFields()}. Headers, nested objects of other types and values which are not primitives
+ * are still handled by {@link ReflectionSerializer}, so the stream is identical to the one produced by reflection.
+ *
+ * @param <T> the data type
+ */
+public abstract class GeneratedSerializer<T> extends ReflectionSerializer<T> {
+
+    private final ClassInfo classInfo;
+    private final ValueWriter[] fieldValueWriters;
+
+    protected GeneratedSerializer(Class<T> type, ClassInfo classInfo) {
+        super(type);
+        requireNonNull(classInfo);
+        this.classInfo = classInfo;
+        List<FieldInfo> fields = classInfo.getFields();
+        this.fieldValueWriters = new ValueWriter[fields.size()];
+        for (int index = 0; index < fieldValueWriters.length; index++) {
+            fieldValueWriters[index] = getValueWriter(fields.get(index).getDataType());
+        }
+    }
+
+    /**
+     * Returns the class information used to generate the serializer.
+     *
+     * @return a non-null instance
+     */
+    public final ClassInfo getClassInfo() {
+        return classInfo;
+    }
+
+    @Override
+    final void serializeFields(SerializerContext context, Object data, ClassInfo classInfo) throws IOException {
+        if (classInfo == this.classInfo) {
+            writeFields(context, data);
+        } else {
+            super.serializeFields(context, data, classInfo);
+        }
+    }
+
+    /**
+     * Writes all fields of an object of this type.
+     *
+     * @param context the serialization context, which holds the encoder
+     * @param data    the object
+     * @throws IOException if an I/O error occurs
+     */
+    protected abstract void writeFields(SerializerContext context, Object data) throws IOException;
+
+    /**
+     * Writes the value of a field which is not a primitive or a string.
+     *
+     * @param context  the serialization context
+     * @param dataType the data type of the field
+     * @param value    the value, can be {@code null}
+     * @throws IOException if an I/O error occurs
+     */
+    protected final void writeValue(SerializerContext context, DataType dataType, Object value) throws IOException {
+        serializeValue(context, dataType, value);
+    }
+
+    /**
+     * Writes the value of a field which is not a primitive.
+     *
+     * @param context the serialization context
+     * @param index   the index of the field in {@link ClassInfo#getFields()}
+     * @param value   the value, can be {@code null}
+     * @throws IOException if an I/O error occurs
+     */
+    protected final void writeField(SerializerContext context, int index, Object value) throws IOException {
+        if (value == null) {
+            context.getEncoder().writeNull();
+        } else {
+            fieldValueWriters[index].write(context, value);
+        }
+    }
+}
@@ -19,7 +19,6 @@
 
 package net.microfalx.binserde.serializer;
 
-import net.microfalx.binserde.io.Encoder;
 import net.microfalx.binserde.metadata.DataType;
 
 import java.io.IOException;
@@ -33,7 +32,7 @@ class ReflectionCollectionSerializer extends ReflectionFieldSerializer {
     }
 
     @Override
-    void serialize(DataType dataType, Object value, Encoder encoder) throws IOException {
+    ValueWriter createWriter(DataType dataType) {
         switch (dataType) {
             case COLLECTION:
             case LIST:
@@ -41,33 +40,31 @@ class ReflectionCollectionSerializer extends ReflectionFieldSerializer {
             case QUEUE:
             case DEQUE:
             case SORTED_SET:
-                serializeArray(value, encoder);
-                break;
+                return (context, value) -> serializeArray(value, context);
             case MAP:
             case SORTED_MAP:
-                serializeMap(value, encoder);
-                break;
+                return (context, value) -> serializeMap(value, context);
             default:
                 throw new SerializerException("Unhandled data type " + dataType);
         }
     }
 
-    void serializeArray(Object value, Encoder encoder) throws IOException {
+    void serializeArray(Object value, SerializerContext context) throws IOException {
         Collection<Object> collection = (Collection<Object>) value;
         int size = collection.size();
-        encoder.writeInteger(size);
+        context.getEncoder().writeInteger(size);
         for (Object collectionValue : collection) {
-            parent.serializeValue(collectionValue);
+            parent.serializeValue(context, collectionValue);
         }
     }
 
-    void serializeMap(Object value, Encoder encoder) throws IOException {
+    void serializeMap(Object value, SerializerContext context) throws IOException {
         Map<Object, Object> map = (Map<Object, Object>) value;
         int size = map.size();
-        encoder.writeInteger(size);
+        context.getEncoder().writeInteger(size);
         for (Map.Entry<Object, Object> entry : map.entrySet()) {
-            parent.serializeValue(entry.getKey());
-            parent.serializeValue(entry.getValue());
+            parent.serializeValue(context, entry.getKey());
+            parent.serializeValue(context, entry.getValue());
         }
     }
 }
@@ -19,11 +19,8 @@
 
 package net.microfalx.binserde.serializer;
 
-import net.microfalx.binserde.io.Encoder;
 import net.microfalx.binserde.metadata.DataType;
 
-import java.io.IOException;
-
 abstract class ReflectionFieldSerializer {
 
     protected final ReflectionSerializer<?> parent;
@@ -32,5 +29,12 @@ abstract class ReflectionFieldSerializer {
         this.parent = parent;
     }
 
-    abstract void serialize(DataType dataType, Object value, Encoder encoder) throws IOException;
+    /**
+     * Creates the writer for values of a given data type.
+     *
+     * @param dataType the data type
+     * @return a non-null instance
+     * @throws SerializerException if the data type is not handled by this serializer
+     */
+    abstract ValueWriter createWriter(DataType dataType);
 }
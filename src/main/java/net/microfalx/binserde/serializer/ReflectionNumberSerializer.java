@@ -33,38 +33,36 @@ class ReflectionNumberSerializer extends ReflectionFieldSerializer {
     }
 
     @Override
-    void serialize(DataType dataType, Object value, Encoder encoder) throws IOException {
+    ValueWriter createWriter(DataType dataType) {
         switch (dataType) {
             case BYTE:
-                encoder.writeByte((Byte) value);
-                break;
+                return (context, value) -> context.getEncoder().writeByte((Byte) value);
             case SHORT:
-                encoder.writeShort((Short) value);
-                break;
+                return (context, value) -> context.getEncoder().writeShort((Short) value);
             case INTEGER:
-                encoder.writeInteger((Integer) value);
-                break;
+                return (context, value) -> context.getEncoder().writeInteger((Integer) value);
             case LONG:
-                encoder.writeLong((Long) value);
-                break;
+                return (context, value) -> context.getEncoder().writeLong((Long) value);
             case FLOAT:
-                encoder.writeFloat((Float) value);
-                break;
+                return (context, value) -> context.getEncoder().writeFloat((Float) value);
             case DOUBLE:
-                encoder.writeDouble((Double) value);
-                break;
+                return (context, value) -> context.getEncoder().writeDouble((Double) value);
             case BIG_INTEGER:
-                BigInteger bigInteger = (BigInteger) value;
-                encoder.writeBytes(bigInteger.toByteArray());
-                break;
+                return (context, value) -> writeBigInteger((BigInteger) value, context.getEncoder());
             case BIG_DECIMAL:
-                BigDecimal bigDecimal = (BigDecimal) value;
-                encoder.writeInteger(bigDecimal.scale());
-                encoder.writeInteger(bigDecimal.precision());
-                encoder.writeBytes(bigDecimal.unscaledValue().toByteArray());
-                break;
+                return (context, value) -> writeBigDecimal((BigDecimal) value, context.getEncoder());
             default:
                 throw new SerializerException("Unhandled data type " + dataType);
         }
     }
+
+    private void writeBigInteger(BigInteger bigInteger, Encoder encoder) throws IOException {
+        encoder.writeBytes(bigInteger.toByteArray());
+    }
+
+    private void writeBigDecimal(BigDecimal bigDecimal, Encoder encoder) throws IOException {
+        encoder.writeInteger(bigDecimal.scale());
+        encoder.writeInteger(bigDecimal.precision());
+        encoder.writeBytes(bigDecimal.unscaledValue().toByteArray());
+    }
 }
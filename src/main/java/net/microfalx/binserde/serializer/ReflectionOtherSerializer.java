@@ -19,11 +19,8 @@
 
 package net.microfalx.binserde.serializer;
 
-import net.microfalx.binserde.io.Encoder;
 import net.microfalx.binserde.metadata.DataType;
 
-import java.io.IOException;
-
 class ReflectionOtherSerializer extends ReflectionFieldSerializer {
 
     ReflectionOtherSerializer(ReflectionSerializer<?> parent) {
@@ -31,20 +28,16 @@ class ReflectionOtherSerializer extends ReflectionFieldSerializer {
     }
 
     @Override
-    void serialize(DataType dataType, Object value, Encoder encoder) throws IOException {
+    ValueWriter createWriter(DataType dataType) {
         switch (dataType) {
             case BOOLEAN:
-                encoder.writeBoolean((Boolean) value);
-                break;
+                return (context, value) -> context.getEncoder().writeBoolean((Boolean) value);
             case CHARACTER:
-                encoder.writeCharacter((Character) value);
-                break;
+                return (context, value) -> context.getEncoder().writeCharacter((Character) value);
             case STRING:
-                encoder.writeString((String) value);
-                break;
+                return (context, value) -> context.getEncoder().writeString((String) value);
             case ENUM:
-                encoder.writeEnum((Enum<?>) value);
-                break;
+                return (context, value) -> context.getEncoder().writeEnum((Enum<?>) value);
             default:
                 throw new SerializerException("Unhandled data type " + dataType);
         }
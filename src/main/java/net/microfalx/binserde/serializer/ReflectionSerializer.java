@@ -23,107 +23,194 @@ import net.microfalx.binserde.io.Encoder;
 import net.microfalx.binserde.metadata.ClassInfo;
 import net.microfalx.binserde.metadata.DataType;
 import net.microfalx.binserde.metadata.DataTypes;
+import net.microfalx.binserde.metadata.FieldAccessor;
 import net.microfalx.binserde.metadata.FieldInfo;
 import net.microfalx.binserde.utils.ArgumentUtils;
 
 import java.io.IOException;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static net.microfalx.binserde.metadata.DataTypes.OBJECT;
 
+/**
+ * A serializer which discovers the fields with reflection.
+ * <p>
+ * The serializer holds no state between calls, the state of each call is kept in a {@link SerializerContext}.
+ * It is safe to share an instance between threads.
+ * <p>
+ * Values are written by writers resolved once per data type and each class is compiled, the first time it is
+ * serialized, into an array of field writers. Untyped values (collection elements, map keys and values) are written
+ * by a writer resolved once per runtime class.
+ *
+ * @param <T> the data type
+ */
 public class ReflectionSerializer<T> extends AbstractSerializer<T> {
 
-    private final Map<Class<?>, ClassInfo> classes = new HashMap<>();
-    private Encoder encoder;
-
     private final ReflectionFieldSerializer otherSerializer = new ReflectionOtherSerializer(this);
     private final ReflectionFieldSerializer numberSerializer = new ReflectionNumberSerializer(this);
     private final ReflectionFieldSerializer collectionSerializer = new ReflectionCollectionSerializer(this);
     private final ReflectionFieldSerializer timeSerializer = new ReflectionTimeSerializer(this);
 
+    private final ValueWriter[] valueWriters = createValueWriters();
+    private final Map<Class<?>, FieldWriters> fieldWriters = new ConcurrentHashMap<>();
+
     public ReflectionSerializer(Class<T> type) {
         super(type);
     }
 
     @Override
-    public void serialize(T data, Encoder encoder) throws IOException {
+    public void serialize(T data, SerializerContext context) throws IOException {
         ArgumentUtils.requireNonNull(data);
-        ArgumentUtils.requireNonNull(encoder);
-        this.encoder = encoder;
-        serializeTree(data);
+        ArgumentUtils.requireNonNull(context);
+        serializeTree(context, data);
+    }
+
+    void serializeTree(SerializerContext context, Object data) throws IOException {
+        ClassInfo classInfo = writeObjectHeader(context, data);
+        serializeFields(context, data, classInfo);
     }
 
-    void serializeTree(Object data) throws IOException {
-        ClassInfo classInfo = writeObjectHeader(data);
-        for (FieldInfo fieldInfo : classInfo.getFields()) {
-            Object value = get(data, fieldInfo);
-            serializeValue(fieldInfo.getDataType(), value);
+    void serializeFields(SerializerContext context, Object data, ClassInfo classInfo) throws IOException {
+        for (FieldWriter fieldWriter : getFieldWriters(classInfo)) {
+            fieldWriter.write(context, data);
         }
     }
 
-    void serializeValue(Object data) throws IOException {
+    void serializeValue(SerializerContext context, Object data) throws IOException {
         if (data == null) {
-            encoder.writeNull();
+            context.getEncoder().writeNull();
         } else {
             DataType dataType = DataTypes.getDataType(data.getClass());
-            encoder.writeTag(DataTypes.OBJECT);
+            Encoder encoder = context.getEncoder();
+            encoder.writeTag(OBJECT);
             encoder.writeTag(dataType.getId());
-            serializeValue(dataType, data);
+            getValueWriter(dataType).write(context, data);
         }
-
     }
 
-    void serializeValue(DataType dataType, Object data) throws IOException {
+    void serializeValue(SerializerContext context, DataType dataType, Object data) throws IOException {
         if (data == null) {
-            encoder.writeNull();
+            context.getEncoder().writeNull();
         } else {
-            if (dataType == DataType.OBJECT) {
-                serializeTree(data);
-            } else {
-                serializeBasicValue(dataType, data);
-            }
+            getValueWriter(dataType).write(context, data);
         }
     }
 
-    private void serializeBasicValue(DataType dataType, Object data) throws IOException {
-        switch (dataType.getCategory()) {
-            case OTHER:
-                otherSerializer.serialize(dataType, data, encoder);
-                break;
-            case NUMBER:
-                numberSerializer.serialize(dataType, data, encoder);
-                break;
-            case COLLECTION:
-                collectionSerializer.serialize(dataType, data, encoder);
-                break;
-            case TIME:
-                timeSerializer.serialize(dataType, data, encoder);
-                break;
-            default:
-                throw new SerializerException("Unhandled category " + dataType.getCategory());
-        }
+    /**
+     * Returns the writer for values of a given data type.
+     *
+     * @param dataType the data type
+     * @return a non-null instance
+     */
+    final ValueWriter getValueWriter(DataType dataType) {
+        return valueWriters[dataType.ordinal()];
     }
 
-    private ClassInfo writeObjectHeader(Object data) throws IOException {
+    private ClassInfo writeObjectHeader(SerializerContext context, Object data) throws IOException {
+        Encoder encoder = context.getEncoder();
         Class<?> clazz = data.getClass();
-        ClassInfo classInfo = classes.get(clazz);
+        ClassInfo classInfo = context.getClassInfo(clazz);
         if (classInfo == null) {
             classInfo = ClassInfo.create(clazz);
             encoder.writeClass(classInfo);
-            classes.put(clazz, classInfo);
+            context.addClassInfo(classInfo);
         }
         encoder.writeTag(OBJECT);
         encoder.writeShort(classInfo.getIdentifier());
         return classInfo;
     }
 
-    private Object get(Object data, FieldInfo field) {
-        try {
-            return field.getField().get(data);
-        } catch (IllegalAccessException e) {
-            throw new SerializerException("Failed to extract field value for " + field, e);
+    private FieldWriter[] getFieldWriters(ClassInfo classInfo) {
+        FieldWriters writers = fieldWriters.get(classInfo.getClazz());
+        if (writers == null || writers.classInfo != classInfo) {
+            writers = new FieldWriters(classInfo, createFieldWriters(classInfo));
+            fieldWriters.put(classInfo.getClazz(), writers);
         }
+        return writers.writers;
     }
 
+    private FieldWriter[] createFieldWriters(ClassInfo classInfo) {
+        List<FieldInfo> fields = classInfo.getFields();
+        FieldWriter[] writers = new FieldWriter[fields.size()];
+        for (int index = 0; index < writers.length; index++) {
+            FieldInfo fieldInfo = fields.get(index);
+            writers[index] = fieldInfo.isPrimitive() ? createPrimitiveWriter(fieldInfo) : createFieldWriter(fieldInfo);
+        }
+        return writers;
+    }
+
+    private FieldWriter createFieldWriter(FieldInfo fieldInfo) {
+        FieldAccessor accessor = fieldInfo.getAccessor();
+        ValueWriter valueWriter = getValueWriter(fieldInfo.getDataType());
+        return (context, data) -> {
+            Object value = accessor.get(data);
+            if (value == null) {
+                context.getEncoder().writeNull();
+            } else {
+                valueWriter.write(context, value);
+            }
+        };
+    }
+
+    private FieldWriter createPrimitiveWriter(FieldInfo fieldInfo) {
+        FieldAccessor accessor = fieldInfo.getAccessor();
+        switch (fieldInfo.getDataType()) {
+            case BOOLEAN:
+                return (context, data) -> context.getEncoder().writeBoolean(accessor.getBoolean(data));
+            case CHARACTER:
+                return (context, data) -> context.getEncoder().writeCharacter(accessor.getCharacter(data));
+            case BYTE:
+                return (context, data) -> context.getEncoder().writeByte(accessor.getByte(data));
+            case SHORT:
+                return (context, data) -> context.getEncoder().writeShort(accessor.getShort(data));
+            case INTEGER:
+                return (context, data) -> context.getEncoder().writeInteger(accessor.getInteger(data));
+            case LONG:
+                return (context, data) -> context.getEncoder().writeLong(accessor.getLong(data));
+            case FLOAT:
+                return (context, data) -> context.getEncoder().writeFloat(accessor.getFloat(data));
+            case DOUBLE:
+                return (context, data) -> context.getEncoder().writeDouble(accessor.getDouble(data));
+            default:
+                throw new SerializerException("Unhandled primitive data type " + fieldInfo.getDataType());
+        }
+    }
+
+    private ValueWriter[] createValueWriters() {
+        DataType[] dataTypes = DataType.values();
+        ValueWriter[] writers = new ValueWriter[dataTypes.length];
+        for (DataType dataType : dataTypes) {
+            writers[dataType.ordinal()] = createValueWriter(dataType);
+        }
+        return writers;
+    }
+
+    private ValueWriter createValueWriter(DataType dataType) {
+        if (dataType == DataType.OBJECT) return this::serializeTree;
+        switch (dataType.getCategory()) {
+            case OTHER:
+                return otherSerializer.createWriter(dataType);
+            case NUMBER:
+                return numberSerializer.createWriter(dataType);
+            case COLLECTION:
+                return collectionSerializer.createWriter(dataType);
+            case TIME:
+                return timeSerializer.createWriter(dataType);
+            default:
+                throw new SerializerException("Unhandled category " + dataType.getCategory());
+        }
+    }
+
+    private static class FieldWriters {
+
+        private final ClassInfo classInfo;
+        private final FieldWriter[] writers;
+
+        private FieldWriters(ClassInfo classInfo, FieldWriter[] writers) {
+            this.classInfo = classInfo;
+            this.writers = writers;
+        }
+    }
 }
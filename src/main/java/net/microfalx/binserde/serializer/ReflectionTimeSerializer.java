@@ -32,38 +32,28 @@ class ReflectionTimeSerializer extends ReflectionFieldSerializer {
     }
 
     @Override
-    void serialize(DataType dataType, Object value, Encoder encoder) throws IOException {
+    ValueWriter createWriter(DataType dataType) {
         switch (dataType) {
             case TIME_DURATION:
-                writeDuration((Duration) value, encoder);
-                break;
+                return (context, value) -> writeDuration((Duration) value, context.getEncoder());
             case TIME_INSTANT:
-                writeInstant((Instant) value, encoder);
-                break;
+                return (context, value) -> writeInstant((Instant) value, context.getEncoder());
             case TIME_LOCAL_DATE:
-                writeLocalDate((LocalDate) value, encoder);
-                break;
+                return (context, value) -> writeLocalDate((LocalDate) value, context.getEncoder());
             case TIME_LOCAL_TIME:
-                writeLocalTime((LocalTime) value, encoder);
-                break;
+                return (context, value) -> writeLocalTime((LocalTime) value, context.getEncoder());
             case TIME_LOCAL_DATETIME:
-                writeLocalDateTime((LocalDateTime) value, encoder);
-                break;
+                return (context, value) -> writeLocalDateTime((LocalDateTime) value, context.getEncoder());
             case TIME_OFFSET_DATETIME:
-                writeOffsetDateTime((OffsetDateTime) value, encoder);
-                break;
+                return (context, value) -> writeOffsetDateTime((OffsetDateTime) value, context.getEncoder());
             case TIME_ZONED_DATETIME:
-                writeZonedDateTime((ZonedDateTime) value, encoder);
-                break;
+                return (context, value) -> writeZonedDateTime((ZonedDateTime) value, context.getEncoder());
             case TIME_PERIOD:
-                writePeriod((Period) value, encoder);
-                break;
+                return (context, value) -> writePeriod((Period) value, context.getEncoder());
             case TIME_ZONE_ID:
-                writeZoneId((ZoneId) value, encoder);
-                break;
+                return (context, value) -> writeZoneId((ZoneId) value, context.getEncoder());
             case TIME_ZONE_OFFSET:
-                writeZoneOffset((ZoneOffset) value, encoder);
-                break;
+                return (context, value) -> writeZoneOffset((ZoneOffset) value, context.getEncoder());
             default:
                 throw new SerializerException("Unhandled data type " + dataType);
         }
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package net.microfalx.binserde.serializer;
+
+import net.microfalx.binserde.SerializerFactory;
+import net.microfalx.binserde.io.Encoder;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import static net.microfalx.binserde.utils.ArgumentUtils.requireNonNull;
+
+/**
+ * Serializes many objects in the same stream, usually a long-lived connection or a file.
+ * <p>
+ * The session remembers the classes already written in the stream, so the class information of each class
+ * is written once per session instead of once per object. The stream must be read with a
+ * {@link net.microfalx.binserde.deserializer.DeserializationSession}.
+ * <p>
+ * A session is not thread-safe.
+ */
+public final class SerializationSession implements Closeable {
+
+    private final SerializerContext context;
+
+    public SerializationSession(Encoder encoder) {
+        requireNonNull(encoder);
+        this.context = new SerializerContext(encoder);
+    }
+
+    /**
+     * Returns the encoder used by this session.
+     *
+     * @return a non-null instance
+     */
+    public Encoder getEncoder() {
+        return context.getEncoder();
+    }
+
+    /**
+     * Serializes an object.
+     *
+     * @param object the object to serialize
+     * @param <T>    the object type
+     * @throws IOException if an I/O error occurs
+     */
+    @SuppressWarnings("unchecked")
+    public <T> void serialize(T object) throws IOException {
+        requireNonNull(object);
+        Serializer<T> serializer = (Serializer<T>) SerializerFactory.getInstance().getSerializer(object.getClass());
+        serializer.serialize(object, context);
+    }
+
+    /**
+     * Closes the session and the encoder.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        context.getEncoder().close();
+    }
+}
@@ -28,4 +28,15 @@ public interface Serializer<T> {
     Class<T> getType();
 
     void serialize(T data, Encoder encoder) throws IOException;
+
+    /**
+     * Serializes an object within an existing context, usually held by a {@link SerializationSession}.
+     * <p>
+     * Class information already written with the context is not written again.
+     *
+     * @param data    the object
+     * @param context the context
+     * @throws IOException if an I/O error occurs
+     */
+    void serialize(T data, SerializerContext context) throws IOException;
 }
@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package net.microfalx.binserde.serializer;
+
+import net.microfalx.binserde.io.Encoder;
+import net.microfalx.binserde.metadata.ClassInfo;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static net.microfalx.binserde.utils.ArgumentUtils.requireNonNull;
+
+/**
+ * Holds the state of a serialization call: the encoder and the classes already written in the stream.
+ * <p>
+ * A context is created for every call of {@link Serializer#serialize(Object, Encoder)}, which allows serializers to
+ * be shared between threads. A {@link SerializationSession} keeps the same context for many objects.
+ */
+public final class SerializerContext {
+
+    private final Encoder encoder;
+    private final Map<Class<?>, ClassInfo> classes = new HashMap<>();
+
+    SerializerContext(Encoder encoder) {
+        requireNonNull(encoder);
+        this.encoder = encoder;
+    }
+
+    /**
+     * Returns the encoder used by this serialization.
+     *
+     * @return a non-null instance
+     */
+    public Encoder getEncoder() {
+        return encoder;
+    }
+
+    /**
+     * Returns the class information already written in the stream.
+     *
+     * @param clazz the class
+     * @return the class information, {@code null} if the class was not written yet
+     */
+    ClassInfo getClassInfo(Class<?> clazz) {
+        return classes.get(clazz);
+    }
+
+    /**
+     * Registers the class information written in the stream.
+     *
+     * @param classInfo the class information
+     */
+    void addClassInfo(ClassInfo classInfo) {
+        classes.put(classInfo.getClazz(), classInfo);
+    }
+}
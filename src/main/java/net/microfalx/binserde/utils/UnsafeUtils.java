@@ -23,11 +23,44 @@ import sun.misc.Unsafe;
 
 import java.lang.reflect.Field;
 
+/**
+ * Gives access to {@link Unsafe}, when the JVM exposes it.
+ */
 public class UnsafeUtils {
 
-    private static Unsafe unsafe = Unsafe.getUnsafe();
+    private static final Unsafe unsafe = loadUnsafe();
+
+    /**
+     * Returns whether {@link Unsafe} is available in this JVM.
+     *
+     * @return {@code true} if available, {@code false} otherwise
+     */
+    public static boolean isAvailable() {
+        return unsafe != null;
+    }
+
+    /**
+     * Returns the {@link Unsafe} instance.
+     *
+     * @return a non-null instance
+     * @throws IllegalStateException if Unsafe is not available
+     */
+    public static Unsafe getUnsafe() {
+        if (unsafe == null) throw new IllegalStateException("Unsafe is not available");
+        return unsafe;
+    }
 
     public static long getFieldOffset(Field field) {
-        return unsafe.objectFieldOffset(field);
+        return getUnsafe().objectFieldOffset(field);
+    }
+
+    private static Unsafe loadUnsafe() {
+        try {
+            Field field = Unsafe.class.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            return (Unsafe) field.get(null);
+        } catch (Exception e) {
+            return null;
+        }
     }
 }
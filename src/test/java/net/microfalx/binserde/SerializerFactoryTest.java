@@ -21,9 +21,25 @@ package net.microfalx.binserde;
 
 import net.microfalx.binserde.dto.Address;
 import net.microfalx.binserde.dto.Customer;
+import net.microfalx.binserde.dto.DtoUtils;
+import net.microfalx.binserde.io.InputStreamDecoder;
+import net.microfalx.binserde.io.OutputStreamEncoder;
+import net.microfalx.binserde.metadata.ClassInfo;
+import net.microfalx.binserde.metadata.NullRegistry;
+import net.microfalx.binserde.serializer.Serializer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class SerializerFactoryTest {
@@ -48,6 +64,15 @@ class SerializerFactoryTest {
         assertTrue(factory.isSupported(Customer.class));
     }
 
+    @Test
+    void unregister() {
+        factory.register(Customer.class, Customer.ID);
+        factory.unregister(Customer.class);
+        assertFalse(factory.isSupported(Customer.class));
+        factory.register(Address.class, Customer.ID);
+        assertTrue(factory.isSupported(Address.class));
+    }
+
     @Test
     void registerWithWrongIdentifier() {
         assertThrows(IllegalArgumentException.class, () -> factory.register(Customer.class, -49));
@@ -63,4 +88,80 @@ class SerializerFactoryTest {
     @Test
     void isSupported() {
     }
-}
\ No newline at end of file
+
+    @Test
+    void cachedSerializers() {
+        DtoUtils.init();
+        assertSame(factory.getSerializer(Customer.class), factory.getSerializer(Customer.class));
+        assertSame(factory.getDeserializer(Customer.class), factory.getDeserializer(Customer.class));
+        assertNotSame(factory.createSerializer(Customer.class), factory.createSerializer(Customer.class));
+    }
+
+    @Test
+    void sharedSerializer() throws Exception {
+        DtoUtils.init();
+        factory.setRegistry(new NullRegistry());
+        Customer customer = Customer.create();
+        Serializer<Customer> serializer = factory.getSerializer(Customer.class);
+        byte[] expected = serialize(serializer, customer);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<byte[]>> futures = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                futures.add(executor.submit(() -> serialize(serializer, customer)));
+            }
+            for (Future<byte[]> future : futures) {
+                assertArrayEquals(expected, future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void clearCacheOnConfigurationChange() throws Exception {
+        DtoUtils.init();
+        factory.setRegistry(new NullRegistry());
+        Customer customer = Customer.create();
+        byte[] bytes = serialize(factory.getSerializer(Customer.class), customer);
+        factory.getDeserializer(Customer.class).deserialize(new InputStreamDecoder(new ByteArrayInputStream(bytes)));
+        ClassInfo classInfo = ClassInfo.create(Customer.class);
+        boolean unsafeEnabled = factory.isUnsafeEnabled();
+        try {
+            factory.setUnsafeEnabled(!unsafeEnabled);
+            assertNotSame(classInfo, ClassInfo.create(Customer.class));
+            Customer copy = factory.getDeserializer(Customer.class).deserialize(new InputStreamDecoder(new ByteArrayInputStream(bytes)));
+            assertEquals(customer.getFirstName(), copy.getFirstName());
+            assertEquals(customer.getAge(), copy.getAge());
+        } finally {
+            factory.setUnsafeEnabled(unsafeEnabled);
+        }
+    }
+
+    @Test
+    void serializeClosesEncoderOnFailure() {
+        AtomicBoolean closed = new AtomicBoolean();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream() {
+
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+        assertThrows(RuntimeException.class, () -> SerializerFactory.serialize(new Unregistered(), outputStream));
+        assertTrue(closed.get());
+    }
+
+    private byte[] serialize(Serializer<Customer> serializer, Customer customer) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        OutputStreamEncoder encoder = new OutputStreamEncoder(outputStream);
+        serializer.serialize(customer, encoder);
+        encoder.close();
+        return outputStream.toByteArray();
+    }
+
+    private static class Unregistered {
+
+        private String value = "value";
+    }
+}
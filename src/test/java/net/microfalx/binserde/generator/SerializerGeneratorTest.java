@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package net.microfalx.binserde.generator;
+
+import net.microfalx.binserde.AbstractSerdeTestCase;
+import net.microfalx.binserde.deserializer.Deserializer;
+import net.microfalx.binserde.deserializer.GeneratedDeserializer;
+import net.microfalx.binserde.dto.AllSupportedTypes;
+import net.microfalx.binserde.dto.NumberTypes;
+import net.microfalx.binserde.io.Encoder;
+import net.microfalx.binserde.io.OutputStreamEncoder;
+import net.microfalx.binserde.serializer.GeneratedSerializer;
+import net.microfalx.binserde.serializer.ReflectionSerializer;
+import net.microfalx.binserde.serializer.Serializer;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SerializerGeneratorTest extends AbstractSerdeTestCase {
+
+    @Test
+    void createGenerated() {
+        assertTrue(serializerFactory.createSerializer(NumberTypes.class) instanceof GeneratedSerializer);
+        assertTrue(serializerFactory.createDeserializer(NumberTypes.class) instanceof GeneratedDeserializer);
+    }
+
+    @Test
+    void sameStreamAsReflection() throws IOException {
+        AllSupportedTypes types = AllSupportedTypes.create();
+        ByteArrayOutputStream expectedStream = new ByteArrayOutputStream();
+        Encoder expectedEncoder = new OutputStreamEncoder(expectedStream);
+        new ReflectionSerializer<>(AllSupportedTypes.class).serialize(types, expectedEncoder);
+        expectedEncoder.close();
+
+        SerializerGenerator.getInstance().createSerializer(AllSupportedTypes.class).serialize(types, encoder);
+        encoder.close();
+        assertArrayEquals(expectedStream.toByteArray(), outputStream.toByteArray());
+    }
+
+    @Test
+    void serializeAndDeserialize() throws IOException {
+        AllSupportedTypes types = AllSupportedTypes.create();
+        Serializer<AllSupportedTypes> serializer = SerializerGenerator.getInstance().createSerializer(AllSupportedTypes.class);
+        serializer.serialize(types, encoder);
+        createDecoder();
+        Deserializer<AllSupportedTypes> deserializer = SerializerGenerator.getInstance().createDeserializer(AllSupportedTypes.class);
+        assertThat(deserializer.deserialize(decoder)).usingRecursiveComparison().isEqualTo(types);
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package net.microfalx.binserde.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChunkPoolTest {
+
+    @Test
+    void acquireAndRelease() {
+        ChunkPool pool = new ChunkPool(1);
+        byte[] chunk = pool.acquire();
+        assertEquals(IOUtils.CHUNK_SIZE, chunk.length);
+        assertEquals(1, pool.getMissCount());
+        pool.release(chunk);
+        assertSame(chunk, pool.acquire());
+        assertEquals(1, pool.getHitCount());
+        assertNotSame(chunk, pool.acquire());
+        assertEquals(2, pool.getMissCount());
+    }
+
+    @Test
+    void bounded() {
+        ChunkPool pool = new ChunkPool(1);
+        byte[] chunk = pool.acquire();
+        pool.release(chunk);
+        pool.release(new byte[IOUtils.CHUNK_SIZE]);
+        assertSame(chunk, pool.acquire());
+        assertThrows(IllegalArgumentException.class, () -> pool.release(new byte[10]));
+    }
+
+    @Test
+    void disabled() {
+        ChunkPool pool = new ChunkPool(0);
+        pool.release(pool.acquire());
+        pool.acquire();
+        assertEquals(0, pool.getHitCount());
+        assertEquals(2, pool.getMissCount());
+    }
+
+    @Test
+    void resetEncoderAndDecoder() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        OutputStreamEncoder encoder = new OutputStreamEncoder(outputStream);
+        encoder.writeString("first");
+        encoder.close();
+        byte[] first = outputStream.toByteArray();
+        outputStream = new ByteArrayOutputStream();
+        encoder.reset(outputStream);
+        encoder.writeString("second");
+        encoder.close();
+        byte[] second = outputStream.toByteArray();
+
+        InputStreamDecoder decoder = new InputStreamDecoder(new ByteArrayInputStream(first));
+        assertEquals("first", decoder.readString());
+        decoder.close();
+        decoder.reset(new ByteArrayInputStream(second));
+        assertEquals("second", decoder.readString());
+        decoder.close();
+    }
+}
@@ -24,14 +24,26 @@ import net.microfalx.binserde.dto.Address;
 import net.microfalx.binserde.dto.Customer;
 import net.microfalx.binserde.dto.DtoUtils;
 import net.microfalx.binserde.dto.Order;
+import net.microfalx.binserde.deserializer.DeserializerException;
 import net.microfalx.binserde.metadata.ClassInfo;
+import net.microfalx.binserde.metadata.DataTypes;
 import net.microfalx.binserde.metadata.NullRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 import java.util.concurrent.ThreadLocalRandom;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -290,6 +302,482 @@ class EncoderDecoderTest {
         assertEquals(3, classInfo.getFields().size());
     }
 
+    @Test
+    void largeBlocks() throws IOException {
+        ((AbstractEncoder) encoder).setBlockSize(1024 * 1024);
+        String value = generateString(100_000);
+        for (int index = 0; index < 20000; index++) {
+            encoder.writeLong(Long.MAX_VALUE - index);
+        }
+        encoder.writeString(value);
+        encoder.close();
+        assertEquals(IOUtils.VERSION_LARGE, IOUtils.getVersion(outputStream.toByteArray()[10]));
+        createDecoder();
+        assertEquals(IOUtils.VERSION_LARGE, decoder.getVersion());
+        for (int index = 0; index < 20000; index++) {
+            assertEquals(Long.MAX_VALUE - index, decoder.readLong());
+        }
+        assertEquals(value, decoder.readString());
+
+        ByteBuffer buffer = ByteBuffer.wrap(outputStream.toByteArray());
+        decoder = new ByteBufferDecoder(buffer);
+        for (int index = 0; index < 20000; index++) {
+            assertEquals(Long.MAX_VALUE - index, decoder.readLong());
+        }
+        assertEquals(value, decoder.readString());
+    }
+
+    @Test
+    void checksums() throws IOException {
+        for (BlockChecksum checksum : new BlockChecksum[]{BlockChecksums.LEGACY, BlockChecksums.CRC32C,
+                BlockChecksums.XXHASH, BlockChecksums.NONE}) {
+            outputStream = new ByteArrayOutputStream();
+            encoder = new OutputStreamEncoder(outputStream);
+            ((AbstractEncoder) encoder).setChecksum(checksum);
+            encoder.writeString(generateString(1000));
+            encoder.close();
+            assertEquals(checksum.getId(), IOUtils.getChecksumId(outputStream.toByteArray()[10]));
+            createDecoder();
+            assertEquals(generateString(1000), decoder.readString());
+        }
+    }
+
+    @Test
+    void corruptedBlock() throws IOException {
+        encoder.writeString(generateString(1000));
+        encoder.close();
+        byte[] bytes = outputStream.toByteArray();
+        bytes[500]++;
+        decoder = new InputStreamDecoder(new ByteArrayInputStream(bytes));
+        assertThrows(DeserializerException.class, () -> decoder.readString());
+    }
+
+    @Test
+    void heapBuffer() throws IOException {
+        assertBuffer(ByteBuffer.allocate(64 * 1024));
+    }
+
+    @Test
+    void directBuffer() throws IOException {
+        assertBuffer(ByteBuffer.allocateDirect(64 * 1024));
+    }
+
+    @Test
+    void littleEndianBuffer() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(200_000).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBufferEncoder bufferEncoder = new ByteBufferEncoder(buffer);
+        for (int index = 0; index < 20000; index++) {
+            bufferEncoder.writeLong(Long.MAX_VALUE - index);
+        }
+        bufferEncoder.close();
+        buffer.flip();
+        decoder = new ByteBufferDecoder(buffer);
+        for (int index = 0; index < 20000; index++) {
+            assertEquals(Long.MAX_VALUE - index, decoder.readLong());
+        }
+        assertFalse(buffer.hasRemaining());
+        assertEquals(ByteOrder.LITTLE_ENDIAN, buffer.order());
+    }
+
+    @Test
+    void mappedFile() throws IOException {
+        Path file = Files.createTempFile("binserde", ".bin");
+        try {
+            encoder = new OutputStreamEncoder(Files.newOutputStream(file));
+            for (int index = 0; index < 20000; index++) {
+                encoder.writeLong(Long.MAX_VALUE - index);
+            }
+            encoder.close();
+            decoder = new MappedFileDecoder(file, 16 * 1024);
+            for (int index = 0; index < 20000; index++) {
+                assertEquals(Long.MAX_VALUE - index, decoder.readLong());
+            }
+            decoder.close();
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void channel() throws IOException {
+        Path file = Files.createTempFile("binserde", ".bin");
+        try {
+            ChannelEncoder channelEncoder = new ChannelEncoder(FileChannel.open(file, StandardOpenOption.WRITE));
+            channelEncoder.setThreshold(64 * 1024);
+            channelEncoder.setForcePolicy(ChannelEncoder.ForcePolicy.ON_CLOSE);
+            for (int index = 0; index < 20000; index++) {
+                channelEncoder.writeLong(Long.MAX_VALUE - index);
+                encoder.writeLong(Long.MAX_VALUE - index);
+            }
+            channelEncoder.close();
+            encoder.close();
+            assertArrayEquals(outputStream.toByteArray(), Files.readAllBytes(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void deflate() throws IOException {
+        assertCodec(BlockCodecs.DEFLATE);
+    }
+
+    @Test
+    void lz() throws IOException {
+        assertCodec(BlockCodecs.LZ);
+    }
+
+    @Test
+    void compressionThreshold() throws IOException {
+        ((AbstractEncoder) encoder).setCodec(BlockCodecs.LZ);
+        ((AbstractEncoder) encoder).setCompressionThreshold(2048);
+        encoder.writeString(generateString(1000));
+        encoder.close();
+        assertEquals(IOUtils.VERSION, IOUtils.getVersion(outputStream.toByteArray()[10]));
+        createDecoder();
+        assertEquals(generateString(1000), decoder.readString());
+    }
+
+    @Test
+    void compressedDirectBuffer() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+        ByteBufferEncoder bufferEncoder = new ByteBufferEncoder(buffer);
+        bufferEncoder.setCodec(BlockCodecs.LZ);
+        for (int index = 0; index < 5000; index++) {
+            bufferEncoder.writeLong(Long.MAX_VALUE - index);
+        }
+        bufferEncoder.close();
+        buffer.flip();
+        assertTrue(buffer.remaining() < 5000 * 9);
+        decoder = new ByteBufferDecoder(buffer);
+        assertEquals(IOUtils.VERSION_COMPRESSED, decoder.getVersion());
+        for (int index = 0; index < 5000; index++) {
+            assertEquals(Long.MAX_VALUE - index, decoder.readLong());
+        }
+    }
+
+    @Test
+    void corruptedCompressedBlock() throws IOException {
+        ((AbstractEncoder) encoder).setCodec(BlockCodecs.LZ);
+        ((AbstractEncoder) encoder).setChecksum(BlockChecksums.NONE);
+        encoder.writeString(generateString(1000));
+        encoder.close();
+        byte[] bytes = outputStream.toByteArray();
+        Arrays.fill(bytes, IOUtils.RESERVED_HEADER_COMPRESSED, bytes.length, (byte) 0xFF);
+        decoder = new InputStreamDecoder(new ByteArrayInputStream(bytes));
+        assertThrows(DecoderException.class, () -> decoder.readString());
+    }
+
+    @Test
+    void largeValues() throws IOException {
+        String value = generateString(100_000);
+        byte[] bytes = generateBytes(1024 * 1024);
+        encoder.writeInteger(1);
+        encoder.writeString(value);
+        encoder.writeBytes(bytes);
+        encoder.writeInteger(2);
+        encoder.close();
+        createDecoder();
+        assertEquals(1, decoder.readInteger());
+        assertEquals(value, decoder.readString());
+        assertArrayEquals(bytes, decoder.readBytes());
+        assertEquals(2, decoder.readInteger());
+    }
+
+    @Test
+    void streamedBytes() throws IOException {
+        byte[] bytes = generateBytes(100_000);
+        encoder.writeBytes(new ByteArrayInputStream(bytes));
+        encoder.writeBytes(new ByteArrayInputStream(new byte[0]));
+        encoder.writeBytes((InputStream) null);
+        encoder.writeBytes(bytes);
+        encoder.writeBytes(new ByteArrayInputStream(bytes));
+        encoder.close();
+        createDecoder();
+        ByteArrayOutputStream copy = new ByteArrayOutputStream();
+        assertEquals(bytes.length, decoder.readBytes(copy));
+        assertArrayEquals(bytes, copy.toByteArray());
+        assertEquals(0, decoder.readBytes(new ByteArrayOutputStream()));
+        assertEquals(-1, decoder.readBytes(new ByteArrayOutputStream()));
+        copy = new ByteArrayOutputStream();
+        assertEquals(bytes.length, decoder.readBytes(copy));
+        assertArrayEquals(bytes, copy.toByteArray());
+        assertArrayEquals(bytes, decoder.readBytes());
+    }
+
+    @Test
+    void streamedBytesDirectBuffer() throws IOException {
+        byte[] bytes = generateBytes(100_000);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(256 * 1024);
+        ByteBufferEncoder bufferEncoder = new ByteBufferEncoder(buffer);
+        bufferEncoder.writeBytes(new ByteArrayInputStream(bytes));
+        bufferEncoder.close();
+        buffer.flip();
+        decoder = new ByteBufferDecoder(buffer);
+        ByteArrayOutputStream copy = new ByteArrayOutputStream();
+        assertEquals(bytes.length, decoder.readBytes(copy));
+        assertArrayEquals(bytes, copy.toByteArray());
+    }
+
+    @Test
+    void async() throws IOException {
+        ByteArrayOutputStream asyncStream = new ByteArrayOutputStream();
+        AsyncEncoder asyncEncoder = new AsyncEncoder(asyncStream);
+        asyncEncoder.setCodec(BlockCodecs.LZ);
+        ((AbstractEncoder) encoder).setCodec(BlockCodecs.LZ);
+        for (int index = 0; index < 20000; index++) {
+            asyncEncoder.writeLong(Long.MAX_VALUE - index);
+            asyncEncoder.writeString(generateString(index % 100));
+            encoder.writeLong(Long.MAX_VALUE - index);
+            encoder.writeString(generateString(index % 100));
+        }
+        asyncEncoder.close();
+        encoder.close();
+        assertArrayEquals(outputStream.toByteArray(), asyncStream.toByteArray());
+    }
+
+    @Test
+    void asyncSettingsChange() throws IOException {
+        ByteArrayOutputStream asyncStream = new ByteArrayOutputStream();
+        AsyncEncoder asyncEncoder = new AsyncEncoder(asyncStream);
+        BlockCodec[] codecs = {BlockCodecs.LZ, BlockCodecs.NONE, BlockCodecs.DEFLATE};
+        BlockChecksum[] checksums = {BlockChecksums.CRC32C, BlockChecksums.NONE};
+        for (int index = 0; index < 20000; index++) {
+            if (index % 1000 == 0) {
+                asyncEncoder.setCodec(codecs[(index / 1000) % codecs.length]);
+                asyncEncoder.setChecksum(checksums[(index / 1000) % checksums.length]);
+                ((AbstractEncoder) encoder).setCodec(codecs[(index / 1000) % codecs.length]);
+                ((AbstractEncoder) encoder).setChecksum(checksums[(index / 1000) % checksums.length]);
+            }
+            asyncEncoder.writeLong(Long.MAX_VALUE - index);
+            asyncEncoder.writeString(generateString(index % 100));
+            encoder.writeLong(Long.MAX_VALUE - index);
+            encoder.writeString(generateString(index % 100));
+        }
+        asyncEncoder.close();
+        encoder.close();
+        assertArrayEquals(outputStream.toByteArray(), asyncStream.toByteArray());
+    }
+
+    @Test
+    void asyncFailure() throws IOException {
+        Path file = Files.createTempFile("binserde", ".bin");
+        try {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+            AsyncEncoder asyncEncoder = new AsyncEncoder(channel, 2, Thread::new);
+            assertThrows(IOException.class, () -> {
+                for (int index = 0; index < 20000; index++) {
+                    asyncEncoder.writeLong(Long.MAX_VALUE - index);
+                }
+                asyncEncoder.close();
+            });
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void prefetch() throws IOException {
+        ((AbstractEncoder) encoder).setCodec(BlockCodecs.LZ);
+        for (int index = 0; index < 20000; index++) {
+            encoder.writeLong(Long.MAX_VALUE - index);
+            encoder.writeString(generateString(index % 100));
+        }
+        encoder.close();
+        decoder = new PrefetchingDecoder(new ByteArrayInputStream(outputStream.toByteArray()), 2, Thread::new);
+        for (int index = 0; index < 20000; index++) {
+            assertEquals(Long.MAX_VALUE - index, decoder.readLong());
+            assertEquals(generateString(index % 100), decoder.readString());
+        }
+        assertThrows(EOFException.class, () -> decoder.readLong());
+        decoder.close();
+    }
+
+    @Test
+    void prefetchCorruptedBlock() throws IOException {
+        for (int index = 0; index < 5000; index++) {
+            encoder.writeLong(Long.MAX_VALUE - index);
+        }
+        encoder.close();
+        byte[] bytes = outputStream.toByteArray();
+        bytes[bytes.length - 100]++;
+        decoder = new PrefetchingDecoder(new ByteArrayInputStream(bytes));
+        assertThrows(DeserializerException.class, () -> {
+            for (int index = 0; index < 5000; index++) {
+                assertEquals(Long.MAX_VALUE - index, decoder.readLong());
+            }
+        });
+        decoder.close();
+    }
+
+    @Test
+    void littleEndian() throws IOException {
+        ((AbstractEncoder) encoder).setByteOrder(ByteOrder.LITTLE_ENDIAN);
+        for (int index = 0; index < 5000; index++) {
+            encoder.writeLong(Long.MAX_VALUE - index);
+            encoder.writeDouble(index / 3d);
+            encoder.writeInteger(Integer.MIN_VALUE + index);
+        }
+        encoder.close();
+        byte[] bytes = outputStream.toByteArray();
+        assertEquals(ByteOrder.LITTLE_ENDIAN, IOUtils.getByteOrder(bytes[10]));
+        assertEquals(IOUtils.VERSION, IOUtils.getVersion(bytes[10]));
+        assertEquals(Long.MAX_VALUE, ByteBuffer.wrap(bytes, IOUtils.RESERVED_HEADER + 1, 8).order(ByteOrder.LITTLE_ENDIAN).getLong());
+        createDecoder();
+        for (int index = 0; index < 5000; index++) {
+            assertEquals(Long.MAX_VALUE - index, decoder.readLong());
+            assertEquals(index / 3d, decoder.readDouble());
+            assertEquals(Integer.MIN_VALUE + index, decoder.readInteger());
+        }
+    }
+
+    @Test
+    void unicodeStrings() throws IOException {
+        String[] values = {"", "ascii", "caf\u00e9", "\u65e5\u672c\u8a9e", "emoji \ud83d\ude00 end", "unpaired \ud83d end",
+                generateUnicodeString(50_000)};
+        for (String value : values) {
+            encoder.writeString(value);
+        }
+        encoder.close();
+        createDecoder();
+        for (String value : values) {
+            assertEquals(new String(value.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8), decoder.readString());
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(256 * 1024);
+        ByteBufferEncoder bufferEncoder = new ByteBufferEncoder(buffer);
+        for (String value : values) {
+            bufferEncoder.writeString(value);
+        }
+        bufferEncoder.close();
+        buffer.flip();
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        assertArrayEquals(outputStream.toByteArray(), bytes);
+    }
+
+    @Test
+    void stringsFromDirectBuffer() throws IOException {
+        String[] values = {"ascii", "caf\u00e9", "emoji \ud83d\ude00 end", generateString(100_000), generateUnicodeString(50_000)};
+        ByteBuffer buffer = ByteBuffer.allocateDirect(512 * 1024);
+        ByteBufferEncoder bufferEncoder = new ByteBufferEncoder(buffer);
+        for (String value : values) {
+            bufferEncoder.writeString(value);
+        }
+        bufferEncoder.close();
+        buffer.flip();
+        decoder = new ByteBufferDecoder(buffer);
+        for (String value : values) {
+            assertEquals(value, decoder.readString());
+        }
+    }
+
+    @Test
+    void stringLength() throws IOException {
+        encoder.writeString("caf\u00e9");
+        encoder.close();
+        createDecoder();
+        assertEquals((byte) (DataTypes.BASE | DataTypes.BASE_STRING), decoder.readTag());
+        assertEquals(5, decoder.readInteger());
+    }
+
+    @Test
+    void stringTable() throws IOException {
+        String[] cities = {"Boston", "New York", "Chicago", "caf\u00e9", "Seattle"};
+        ((AbstractEncoder) encoder).setStringTableSize(4);
+        for (int index = 0; index < 10000; index++) {
+            encoder.writeString(cities[index % cities.length]);
+            encoder.writeString(cities[index % 2]);
+            encoder.writeString(generateString(300));
+        }
+        encoder.close();
+        int size = outputStream.size();
+        createDecoder();
+        for (int index = 0; index < 10000; index++) {
+            assertEquals(cities[index % cities.length], decoder.readString());
+            assertEquals(cities[index % 2], decoder.readString());
+            assertEquals(generateString(300), decoder.readString());
+        }
+
+        outputStream = new ByteArrayOutputStream();
+        encoder = new OutputStreamEncoder(outputStream);
+        ((AbstractEncoder) encoder).setStringTableSize(16);
+        for (int index = 0; index < 10000; index++) {
+            encoder.writeString(cities[index % cities.length]);
+        }
+        encoder.close();
+        assertTrue(outputStream.size() < size / 10);
+        createDecoder();
+        for (int index = 0; index < 10000; index++) {
+            assertEquals(cities[index % cities.length], decoder.readString());
+        }
+    }
+
+    @Test
+    void invalidStringReference() throws IOException {
+        encoder.writeTag((byte) (DataTypes.BASE | DataTypes.BASE_STRING_REF));
+        encoder.writeInteger(3);
+        encoder.close();
+        createDecoder();
+        assertThrows(DecoderException.class, () -> decoder.readString());
+    }
+
+    private String generateUnicodeString(int length) {
+        StringBuilder builder = new StringBuilder();
+        char[] chars = {'a', '\u00e9', '\u65e5', '\ud83d', '\ude00'};
+        for (int index = 0; index < length; index++) {
+            builder.append(chars[index % chars.length]);
+        }
+        return builder.toString();
+    }
+
+    private byte[] generateBytes(int length) {
+        byte[] bytes = new byte[length];
+        ThreadLocalRandom.current().nextBytes(bytes);
+        return bytes;
+    }
+
+    private void assertCodec(BlockCodec codec) throws IOException {
+        ((AbstractEncoder) encoder).setCodec(codec);
+        String value = generateString(10_000);
+        for (int index = 0; index < 20000; index++) {
+            encoder.writeLong(index % 100);
+            encoder.writeString(value.substring(0, index % 26));
+        }
+        encoder.writeString(value);
+        encoder.close();
+        assertEquals(IOUtils.VERSION_COMPRESSED, IOUtils.getVersion(outputStream.toByteArray()[10]));
+        assertTrue(outputStream.size() < 100_000);
+        createDecoder();
+        for (int index = 0; index < 20000; index++) {
+            assertEquals(index % 100, decoder.readLong());
+            assertEquals(value.substring(0, index % 26), decoder.readString());
+        }
+        assertEquals(value, decoder.readString());
+    }
+
+    private void assertBuffer(ByteBuffer buffer) throws IOException {
+        Encoder bufferEncoder = new ByteBufferEncoder(buffer);
+        for (int index = 0; index < 5000; index++) {
+            bufferEncoder.writeLong(Long.MAX_VALUE - index);
+            encoder.writeLong(Long.MAX_VALUE - index);
+        }
+        bufferEncoder.writeString("end");
+        encoder.writeString("end");
+        bufferEncoder.close();
+        encoder.close();
+        buffer.flip();
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        assertArrayEquals(outputStream.toByteArray(), bytes);
+        decoder = new ByteBufferDecoder(buffer);
+        for (int index = 0; index < 5000; index++) {
+            assertEquals(Long.MAX_VALUE - index, decoder.readLong());
+        }
+        assertEquals("end", decoder.readString());
+        assertFalse(buffer.hasRemaining());
+    }
+
     private void createDecoder() {
         decoder = new InputStreamDecoder(new ByteArrayInputStream(outputStream.toByteArray()));
     }
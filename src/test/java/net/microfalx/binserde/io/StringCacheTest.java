@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package net.microfalx.binserde.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StringCacheTest {
+
+    @Test
+    void get() {
+        StringCache cache = new StringCache(16);
+        byte[] bytes = "xxUnited Statesxx".getBytes(StandardCharsets.UTF_8);
+        String value = cache.get(bytes, 2, 13);
+        assertEquals("United States", value);
+        assertEquals(1, cache.getMissCount());
+        assertSame(value, cache.get("United States".getBytes(StandardCharsets.UTF_8), 0, 13));
+        assertEquals(1, cache.getHitCount());
+        cache.clear();
+        assertNotSame(value, cache.get(bytes, 2, 13));
+    }
+
+    @Test
+    void bounded() {
+        StringCache cache = new StringCache(3);
+        assertEquals(4, cache.getSize());
+        for (int index = 0; index < 100; index++) {
+            byte[] bytes = ("value" + index).getBytes(StandardCharsets.UTF_8);
+            assertEquals("value" + index, cache.get(bytes, 0, bytes.length));
+        }
+        byte[] bytes = new byte[StringCache.MAX_LENGTH + 1];
+        assertNotSame(cache.get(bytes, 0, bytes.length), cache.get(bytes, 0, bytes.length));
+    }
+
+    @Test
+    void decoder() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        OutputStreamEncoder encoder = new OutputStreamEncoder(outputStream);
+        for (int index = 0; index < 4; index++) {
+            encoder.writeString("caf\u00e9");
+        }
+        encoder.close();
+        InputStreamDecoder decoder = new InputStreamDecoder(new ByteArrayInputStream(outputStream.toByteArray()));
+        decoder.setStringCache(new StringCache(16));
+        String value = decoder.readString(true);
+        assertEquals("caf\u00e9", value);
+        assertSame(value, decoder.readString(true));
+        assertNotSame(value, decoder.readString(false));
+        assertNotSame(value, decoder.readString());
+    }
+}
@@ -25,14 +25,22 @@ import net.microfalx.binserde.dto.DtoUtils;
 import net.microfalx.binserde.dto.Order;
 import net.microfalx.binserde.io.Decoder;
 import net.microfalx.binserde.io.Encoder;
+import net.microfalx.binserde.io.InputStreamDecoder;
 import net.microfalx.binserde.io.OutputStreamEncoder;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class ClassInfoTest {
 
@@ -78,6 +86,87 @@ class ClassInfoTest {
         assertEquals(200, classInfo.getIdentifier());
     }
 
+    @Test
+    void accessors() {
+        ClassInfo classInfo = ClassInfo.create(Customer.class);
+        Customer customer = Customer.create();
+        FieldAccessor firstName = classInfo.getField("firstName").getAccessor();
+        FieldAccessor age = classInfo.getField("age").getAccessor();
+        assertEquals("John", firstName.get(customer));
+        assertEquals(30, age.get(customer));
+        firstName.set(customer, "Jane");
+        age.set(customer, 25);
+        assertEquals("Jane", customer.getFirstName());
+        assertEquals(25, customer.getAge());
+    }
+
+    @Test
+    void internFromStream() throws Exception {
+        ClassInfo classInfo = ClassInfo.create(Customer.class);
+        classInfo.store(encoder);
+        classInfo.store(encoder);
+        encoder.close();
+        decoder = new InputStreamDecoder(new ByteArrayInputStream(outputStream.toByteArray()));
+        ClassInfo streamClassInfo = ClassInfo.create(decoder);
+        assertEquals(classInfo.getSignature(), streamClassInfo.getSignature());
+        assertSame(streamClassInfo, ClassInfo.create(decoder));
+    }
+
+    @Test
+    void internFromStreamByLayout() throws Exception {
+        FieldAccessor accessor = ClassInfo.create(Customer.class).getField("age").getAccessor();
+        FieldInfo a = FieldInfo.create("a", String.class, FieldInfo.NO_TAG, accessor);
+        FieldInfo b = FieldInfo.create("b", Integer.class, FieldInfo.NO_TAG, accessor);
+        FieldInfo primitiveB = FieldInfo.create("b", int.class, FieldInfo.NO_TAG, accessor);
+        ClassInfo.create(Customer.class, Arrays.asList(a, b)).store(encoder);
+        ClassInfo.create(Customer.class, Arrays.asList(b, a)).store(encoder);
+        ClassInfo.create(Customer.class, Arrays.asList(a, primitiveB)).store(encoder);
+        encoder.close();
+        decoder = new InputStreamDecoder(new ByteArrayInputStream(outputStream.toByteArray()));
+        ClassInfo first = ClassInfo.create(decoder);
+        ClassInfo swapped = ClassInfo.create(decoder);
+        ClassInfo primitive = ClassInfo.create(decoder);
+        assertNotSame(first, swapped);
+        assertNotSame(first, primitive);
+        assertEquals("a", first.getFields().get(0).getName());
+        assertEquals("b", swapped.getFields().get(0).getName());
+        assertFalse(first.getField("b").isPrimitive());
+        assertTrue(primitive.getField("b").isPrimitive());
+    }
+
+    @Test
+    void descriptorStoresDataTypePosition() throws Exception {
+        // the descriptor as written by earlier versions, data types are stored by position
+        encoder.writeShort((short) Customer.ID);
+        encoder.writeString("Customer");
+        encoder.writeShort((short) 2);
+        encoder.writeString("orders");
+        encoder.writeByte((byte) 20);
+        encoder.writeBoolean(false);
+        encoder.writeShort((short) -1);
+        encoder.writeShort(FieldInfo.NO_TAG);
+        encoder.writeString("elapsed");
+        encoder.writeByte((byte) 21);
+        encoder.writeBoolean(false);
+        encoder.writeShort((short) -1);
+        encoder.writeShort(FieldInfo.NO_TAG);
+        ClassInfo.create(Customer.class).store(encoder);
+        encoder.close();
+        decoder = new InputStreamDecoder(new ByteArrayInputStream(outputStream.toByteArray()));
+        ClassInfo streamClassInfo = ClassInfo.create(decoder);
+        assertEquals(DataType.SORTED_MAP, streamClassInfo.getField("orders").getDataType());
+        assertEquals(DataType.TIME_DURATION, streamClassInfo.getField("elapsed").getDataType());
+        assertEquals(ClassInfo.create(Customer.class).getLayout(), ClassInfo.create(decoder).getLayout());
+    }
+
+    @Test
+    void findMatchingField() {
+        ClassInfo classInfo = ClassInfo.create(Customer.class);
+        FieldInfo fieldInfo = classInfo.getField("firstName");
+        assertSame(fieldInfo, classInfo.findField(fieldInfo));
+        assertNull(classInfo.findField(FieldInfo.create("missing", String.class, FieldInfo.NO_TAG, fieldInfo.getAccessor())));
+    }
+
     @Test
     void validaToString() throws Exception {
         ClassInfo classInfo = ClassInfo.create(Customer.class);
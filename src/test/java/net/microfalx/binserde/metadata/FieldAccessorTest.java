@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package net.microfalx.binserde.metadata;
+
+import net.microfalx.binserde.dto.AllSupportedTypes;
+import net.microfalx.binserde.dto.NumberTypes;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FieldAccessorTest {
+
+    @Test
+    void methodHandlePrimitives() throws Exception {
+        assertPrimitives(MethodHandleFieldAccessor::create);
+    }
+
+    @Test
+    void unsafePrimitives() throws Exception {
+        assertPrimitives(UnsafeFieldAccessor::create);
+    }
+
+    @Test
+    void methodHandleObjects() throws Exception {
+        assertObjects(MethodHandleFieldAccessor::create);
+    }
+
+    @Test
+    void unsafeObjects() throws Exception {
+        assertObjects(UnsafeFieldAccessor::create);
+    }
+
+    @Test
+    void unsafeRejectsWrongInstance() throws Exception {
+        FieldAccessor accessor = UnsafeFieldAccessor.create(getField(NumberTypes.class, "i1"));
+        assertThrows(ClassCastException.class, () -> accessor.getInteger(new AllSupportedTypes()));
+    }
+
+    private void assertPrimitives(AccessorFactory factory) throws Exception {
+        NumberTypes types = NumberTypes.create();
+        FieldAccessor i1 = factory.create(getField(NumberTypes.class, "i1"));
+        FieldAccessor l1 = factory.create(getField(NumberTypes.class, "l1"));
+        FieldAccessor d1 = factory.create(getField(NumberTypes.class, "d1"));
+        FieldAccessor b1 = factory.create(getField(AllSupportedTypes.class, "b1"));
+        FieldAccessor c1 = factory.create(getField(AllSupportedTypes.class, "c1"));
+        assertEquals(30, i1.getInteger(types));
+        assertEquals(50L, l1.getLong(types));
+        assertEquals(0.3, d1.getDouble(types));
+        assertEquals(30, i1.get(types));
+        i1.setInteger(types, 31);
+        l1.setLong(types, Long.MAX_VALUE);
+        d1.set(types, 0.5);
+        assertEquals(31, types.getI1());
+        assertEquals(Long.MAX_VALUE, types.getL1());
+        assertEquals(0.5, types.getD1());
+
+        AllSupportedTypes allTypes = AllSupportedTypes.create();
+        assertTrue(b1.getBoolean(allTypes));
+        assertEquals('a', c1.getCharacter(allTypes));
+        b1.setBoolean(allTypes, false);
+        c1.setCharacter(allTypes, 'z');
+        assertFalse(allTypes.isB1());
+        assertEquals('z', allTypes.getC1());
+    }
+
+    private void assertObjects(AccessorFactory factory) throws Exception {
+        NumberTypes types = NumberTypes.create();
+        FieldAccessor i2 = factory.create(getField(NumberTypes.class, "i2"));
+        assertEquals(40, i2.get(types));
+        i2.set(types, null);
+        assertNull(types.getI2());
+        assertThrows(ClassCastException.class, () -> i2.set(types, "text"));
+    }
+
+    private Field getField(Class<?> clazz, String name) throws Exception {
+        Field field = clazz.getDeclaredField(name);
+        field.setAccessible(true);
+        return field;
+    }
+
+    private interface AccessorFactory {
+
+        FieldAccessor create(Field field);
+    }
+}
@@ -20,6 +20,9 @@
 package net.microfalx.binserde.serde;
 
 import net.microfalx.binserde.SerializerFactory;
+import net.microfalx.binserde.annotation.Intern;
+import net.microfalx.binserde.deserializer.DeserializationSession;
+import net.microfalx.binserde.deserializer.DeserializerException;
 import net.microfalx.binserde.deserializer.ReflectionDeserializer;
 import net.microfalx.binserde.dto.Address;
 import net.microfalx.binserde.dto.Customer;
@@ -29,17 +32,32 @@ import net.microfalx.binserde.io.Decoder;
 import net.microfalx.binserde.io.Encoder;
 import net.microfalx.binserde.io.InputStreamDecoder;
 import net.microfalx.binserde.io.OutputStreamEncoder;
+import net.microfalx.binserde.io.StringCache;
+import net.microfalx.binserde.metadata.ClassInfo;
+import net.microfalx.binserde.metadata.DataTypes;
+import net.microfalx.binserde.metadata.FieldAccessor;
+import net.microfalx.binserde.metadata.FieldInfo;
 import net.microfalx.binserde.metadata.MemoryRegistry;
 import net.microfalx.binserde.metadata.NullRegistry;
 import net.microfalx.binserde.serializer.ReflectionSerializer;
+import net.microfalx.binserde.serializer.SerializationSession;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class ReflectionSerializerTest {
 
@@ -52,6 +70,10 @@ class ReflectionSerializerTest {
     void setup() {
         serializerFactory.setRegistry(new NullRegistry());
         DtoUtils.init();
+        serializerFactory.register(Point.class, 300);
+        serializerFactory.register(Contact.class, 301);
+        serializerFactory.register(Bag.class, 302);
+        serializerFactory.register(Shape.class, 303);
         outputStream = new ByteArrayOutputStream();
         encoder = new OutputStreamEncoder(outputStream);
     }
@@ -107,7 +129,164 @@ class ReflectionSerializerTest {
         assertEquals(845, outputStream.size());
     }
 
+    @Test
+    void serializeWithSession() throws IOException {
+        Address address = Address.create();
+        SerializationSession session = new SerializationSession(encoder);
+        for (int index = 0; index < 3; index++) {
+            session.serialize(address);
+        }
+        session.close();
+        byte[] sessionData = outputStream.toByteArray();
+
+        outputStream = new ByteArrayOutputStream();
+        encoder = new OutputStreamEncoder(outputStream);
+        ReflectionSerializer<Address> serializer = new ReflectionSerializer<>(Address.class);
+        for (int index = 0; index < 3; index++) {
+            serializer.serialize(address, encoder);
+        }
+        encoder.close();
+        assertTrue(sessionData.length < outputStream.size());
 
+        decoder = new InputStreamDecoder(new ByteArrayInputStream(sessionData));
+        DeserializationSession deserializationSession = new DeserializationSession(decoder);
+        for (int index = 0; index < 3; index++) {
+            assertEquals(address.getCity(), deserializationSession.deserialize(Address.class).getCity());
+        }
+    }
+
+    @Test
+    void deserializeWithoutConstructor() throws IOException {
+        ReflectionSerializer<Point> serializer = new ReflectionSerializer<>(Point.class);
+        serializer.serialize(new Point(3, 4), encoder);
+        createDecoder();
+        ReflectionDeserializer<Point> deserializer = new ReflectionDeserializer<>(Point.class);
+        assertThrows(DeserializerException.class, () -> deserializer.deserialize(decoder));
+    }
+
+    @Test
+    void deserializeWithAllocation() throws IOException {
+        serializerFactory.setAllocationEnabled(true);
+        try {
+            ReflectionSerializer<Point> serializer = new ReflectionSerializer<>(Point.class);
+            serializer.serialize(new Point(3, 4), encoder);
+            createDecoder();
+            Point point = new ReflectionDeserializer<>(Point.class).deserialize(decoder);
+            assertEquals(3, point.x);
+            assertEquals(4, point.y);
+        } finally {
+            serializerFactory.setAllocationEnabled(false);
+        }
+    }
+
+    @Test
+    void deserializeWithInterning() throws IOException {
+        SerializationSession session = new SerializationSession(encoder);
+        session.serialize(new Contact("contact1", "United States"));
+        session.serialize(new Contact("contact1", "United States"));
+        session.close();
+
+        decoder = new InputStreamDecoder(new ByteArrayInputStream(outputStream.toByteArray()));
+        ((InputStreamDecoder) decoder).setStringCache(new StringCache(16));
+        DeserializationSession deserializationSession = new DeserializationSession(decoder);
+        Contact first = deserializationSession.deserialize(Contact.class);
+        Contact second = deserializationSession.deserialize(Contact.class);
+        assertEquals("United States", second.country);
+        assertSame(first.country, second.country);
+        assertEquals(first.name, second.name);
+        assertNotSame(first.name, second.name);
+    }
+
+    @Test
+    void deserializeWithFactoryInterning() throws IOException {
+        serializerFactory.setStringCache(new StringCache(16));
+        try {
+            SerializerFactory.serialize(new Contact("contact1", "United States"), outputStream);
+            Contact first = SerializerFactory.deserialize(Contact.class, new ByteArrayInputStream(outputStream.toByteArray()));
+            Contact second = SerializerFactory.deserialize(Contact.class, new ByteArrayInputStream(outputStream.toByteArray()));
+            assertSame(first.country, second.country);
+            assertNotSame(first.name, second.name);
+
+            DeserializationSession session = new DeserializationSession(new InputStreamDecoder(new ByteArrayInputStream(outputStream.toByteArray())));
+            assertSame(first.country, session.deserialize(Contact.class).country);
+        } finally {
+            serializerFactory.setStringCache(null);
+        }
+    }
+
+    @Test
+    void deserializeAfterConfigurationChange() throws IOException {
+        Customer customer = Customer.create();
+        new ReflectionSerializer<>(Customer.class).serialize(customer, encoder);
+        encoder.close();
+        byte[] bytes = outputStream.toByteArray();
+        ReflectionDeserializer<Customer> deserializer = new ReflectionDeserializer<>(Customer.class);
+        deserializer.deserialize(new InputStreamDecoder(new ByteArrayInputStream(bytes)));
+        boolean unsafeEnabled = serializerFactory.isUnsafeEnabled();
+        try {
+            serializerFactory.setUnsafeEnabled(!unsafeEnabled);
+            Customer copy = deserializer.deserialize(new InputStreamDecoder(new ByteArrayInputStream(bytes)));
+            assertEquals(customer.getFirstName(), copy.getFirstName());
+            assertEquals(customer.getAge(), copy.getAge());
+        } finally {
+            serializerFactory.setUnsafeEnabled(unsafeEnabled);
+        }
+    }
+
+    @Test
+    void serializeUntypedValues() throws IOException {
+        TreeMap<String, Object> nestedMap = new TreeMap<>();
+        nestedMap.put("a", 1);
+        nestedMap.put("b", "two");
+        Bag bag = new Bag();
+        bag.values.addAll(Arrays.asList(1, "two", 3L, 4.5d, true, new ArrayList<>(Arrays.asList("x", 7)), nestedMap));
+        bag.entries.put("int", 1);
+        bag.entries.put("string", "two");
+        bag.entries.put("list", new ArrayList<>(Arrays.asList(1L, "y")));
+        bag.entries.put("map", nestedMap);
+        new ReflectionSerializer<>(Bag.class).serialize(bag, encoder);
+        createDecoder();
+        Bag copy = new ReflectionDeserializer<>(Bag.class).deserialize(decoder);
+        assertEquals(bag.values, copy.values);
+        assertEquals(bag.entries, copy.entries);
+        assertTrue(copy.values.get(5) instanceof ArrayList);
+        assertTrue(copy.values.get(6) instanceof TreeMap);
+        assertTrue(copy.entries.get("map") instanceof TreeMap);
+    }
+
+    @Test
+    void serializeNullValues() throws IOException {
+        Bag bag = new Bag();
+        bag.values.addAll(Arrays.asList(null, 1, null, "two", null));
+        bag.entries.put("a", null);
+        bag.entries.put("b", 2L);
+        bag.entries.put("c", null);
+        new ReflectionSerializer<>(Bag.class).serialize(bag, encoder);
+        createDecoder();
+        Bag copy = new ReflectionDeserializer<>(Bag.class).deserialize(decoder);
+        assertEquals(bag.values, copy.values);
+        assertEquals(bag.entries, copy.entries);
+        assertTrue(copy.entries.containsKey("c"));
+    }
+
+    @Test
+    void deserializeWithDifferentFields() throws IOException {
+        FieldAccessor accessor = ClassInfo.create(Shape.class).getField("x").getAccessor();
+        ClassInfo streamClassInfo = ClassInfo.create(Shape.class, Arrays.asList(
+                FieldInfo.create("y", int.class, FieldInfo.NO_TAG, accessor),
+                FieldInfo.create("label", String.class, FieldInfo.NO_TAG, accessor),
+                FieldInfo.create("x", Integer.class, FieldInfo.NO_TAG, accessor)));
+        encoder.writeClass(streamClassInfo);
+        encoder.writeTag(DataTypes.OBJECT);
+        encoder.writeShort(streamClassInfo.getIdentifier());
+        encoder.writeInteger(4);
+        encoder.writeString("removed");
+        encoder.writeInteger(3);
+        createDecoder();
+        Shape shape = new ReflectionDeserializer<>(Shape.class).deserialize(decoder);
+        assertEquals(3, shape.x);
+        assertEquals(4, shape.y);
+    }
 
     private void createDecoder() throws IOException {
         encoder.close();
@@ -119,4 +298,46 @@ class ReflectionSerializerTest {
         outputStream = new ByteArrayOutputStream();
         encoder = new OutputStreamEncoder(outputStream);
     }
+
+    private static class Contact {
+
+        private String name;
+
+        @Intern
+        private String country;
+
+        private Contact() {
+        }
+
+        private Contact(String name, String country) {
+            this.name = name;
+            this.country = country;
+        }
+    }
+
+    private static class Bag {
+
+        private List<Object> values = new ArrayList<>();
+        private Map<String, Object> entries = new TreeMap<>();
+    }
+
+    private static class Shape {
+
+        private int x;
+        private int y;
+
+        private Shape() {
+        }
+    }
+
+    private static class Point {
+
+        private int x;
+        private int y;
+
+        private Point(int x, int y) {
+            this.x = x;
+            this.y = y;
+        }
+    }
 }
\ No newline at end of file